@@ -51,5 +51,7 @@ public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilt
     /* Cross origin requests can be either simple requests or preflight request. We need to add this
      header to both types of requests. Only preflight requests need the previously added headers. */
      response.getHeaders().add("Access-Control-Allow-Origin", "*");
+     //Lets the client read the link to the next page of the paginated lists
+     response.getHeaders().add("Access-Control-Expose-Headers", "Link");
   }
 }
@@ -0,0 +1,88 @@
+package dtos;
+
+import java.util.List;
+
+public class AvailabilityDTO {
+    private final Integer house_id;
+    private final String from;
+    private final String to;
+    private final Boolean available;
+    private final List<PeriodDTO> rented;
+    private final List<PeriodDTO> free;
+
+    private AvailabilityDTO(Builder builder) {
+        this.house_id = builder.houseId;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.available = builder.available;
+        this.rented = builder.rented;
+        this.free = builder.free;
+    }
+
+    public Integer getHouseId() {
+        return house_id;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public List<PeriodDTO> getRented() {
+        return rented;
+    }
+
+    public List<PeriodDTO> getFree() {
+        return free;
+    }
+
+    public static class Builder {
+        private Integer houseId;
+        private String from;
+        private String to;
+        private Boolean available;
+        private List<PeriodDTO> rented;
+        private List<PeriodDTO> free;
+
+        public Builder setHouseId(Integer houseId) {
+            this.houseId = houseId;
+            return this;
+        }
+
+        public Builder setFrom(String from) {
+            this.from = from;
+            return this;
+        }
+
+        public Builder setTo(String to) {
+            this.to = to;
+            return this;
+        }
+
+        public Builder setAvailable(Boolean available) {
+            this.available = available;
+            return this;
+        }
+
+        public Builder setRented(List<PeriodDTO> rented) {
+            this.rented = rented;
+            return this;
+        }
+
+        public Builder setFree(List<PeriodDTO> free) {
+            this.free = free;
+            return this;
+        }
+
+        public AvailabilityDTO build() {
+            return new AvailabilityDTO(this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dtos;
+
+public class BatchResultDTO {
+    private final Integer index;
+    private final Integer status;
+    private final Integer id;
+    private final String message;
+
+    private BatchResultDTO(Builder builder) {
+        this.index = builder.index;
+        this.status = builder.status;
+        this.id = builder.id;
+        this.message = builder.message;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public static class Builder {
+        private Integer index;
+        private Integer status;
+        private Integer id;
+        private String message;
+
+        public Builder setIndex(Integer index) {
+            this.index = index;
+            return this;
+        }
+
+        public Builder setStatus(Integer status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder setId(Integer id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder setMessage(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public BatchResultDTO build() {
+            return new BatchResultDTO(this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dtos;
+
+public class CacheMetricsDTO {
+    private final String unit;
+    private final String entity;
+    private final Long hits;
+    private final Long misses;
+
+    private CacheMetricsDTO(Builder builder) {
+        this.unit = builder.unit;
+        this.entity = builder.entity;
+        this.hits = builder.hits;
+        this.misses = builder.misses;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public Long getHits() {
+        return hits;
+    }
+
+    public Long getMisses() {
+        return misses;
+    }
+
+    public static class Builder {
+        private String unit;
+        private String entity;
+        private Long hits;
+        private Long misses;
+
+        public Builder setUnit(String unit) {
+            this.unit = unit;
+            return this;
+        }
+
+        public Builder setEntity(String entity) {
+            this.entity = entity;
+            return this;
+        }
+
+        public Builder setHits(Long hits) {
+            this.hits = hits;
+            return this;
+        }
+
+        public Builder setMisses(Long misses) {
+            this.misses = misses;
+            return this;
+        }
+
+        public CacheMetricsDTO build() {
+            return new CacheMetricsDTO(this);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package dtos;
+
+public class EntityManagerMetricsDTO {
+    private final Long opened;
+    private final Long closed;
+    private final Integer open;
+    private final Long leaked;
+    private final Long overdue;
+    private final Long thresholdMs;
+
+    private EntityManagerMetricsDTO(Builder builder) {
+        this.opened = builder.opened;
+        this.closed = builder.closed;
+        this.open = builder.open;
+        this.leaked = builder.leaked;
+        this.overdue = builder.overdue;
+        this.thresholdMs = builder.thresholdMs;
+    }
+
+    public Long getOpened() {
+        return opened;
+    }
+
+    public Long getClosed() {
+        return closed;
+    }
+
+    public Integer getOpen() {
+        return open;
+    }
+
+    public Long getLeaked() {
+        return leaked;
+    }
+
+    public Long getOverdue() {
+        return overdue;
+    }
+
+    public Long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    public static class Builder {
+        private Long opened;
+        private Long closed;
+        private Integer open;
+        private Long leaked;
+        private Long overdue;
+        private Long thresholdMs;
+
+        public Builder setOpened(Long opened) {
+            this.opened = opened;
+            return this;
+        }
+
+        public Builder setClosed(Long closed) {
+            this.closed = closed;
+            return this;
+        }
+
+        public Builder setOpen(Integer open) {
+            this.open = open;
+            return this;
+        }
+
+        public Builder setLeaked(Long leaked) {
+            this.leaked = leaked;
+            return this;
+        }
+
+        public Builder setOverdue(Long overdue) {
+            this.overdue = overdue;
+            return this;
+        }
+
+        public Builder setThresholdMs(Long thresholdMs) {
+            this.thresholdMs = thresholdMs;
+            return this;
+        }
+
+        public EntityManagerMetricsDTO build() {
+            return new EntityManagerMetricsDTO(this);
+        }
+    }
+}
@@ -23,6 +23,18 @@ public class HouseDTO {
         return id;
     }
 
+    public String getAddress() {
+        return address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public Integer getNumberOfRooms() {
+        return number_of_rooms;
+    }
+
     public List<Rental> getRentals() {
         return rentals;
     }
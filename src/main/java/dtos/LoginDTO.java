@@ -19,6 +19,10 @@ public class LoginDTO {
         return password;
     }
 
+    public String getToken() {
+        return token;
+    }
+
     public static class Builder {
         private String username;
         private String password;
@@ -0,0 +1,50 @@
+package dtos;
+
+public class PeriodDTO {
+    private final Integer rental_id;
+    private final String start_date;
+    private final String end_date;
+
+    private PeriodDTO(Builder builder) {
+        this.rental_id = builder.rentalId;
+        this.start_date = builder.startDate;
+        this.end_date = builder.endDate;
+    }
+
+    public Integer getRentalId() {
+        return rental_id;
+    }
+
+    public String getStartDate() {
+        return start_date;
+    }
+
+    public String getEndDate() {
+        return end_date;
+    }
+
+    public static class Builder {
+        private Integer rentalId;
+        private String startDate;
+        private String endDate;
+
+        public Builder setRentalId(Integer rentalId) {
+            this.rentalId = rentalId;
+            return this;
+        }
+
+        public Builder setStartDate(String startDate) {
+            this.startDate = startDate;
+            return this;
+        }
+
+        public Builder setEndDate(String endDate) {
+            this.endDate = endDate;
+            return this;
+        }
+
+        public PeriodDTO build() {
+            return new PeriodDTO(this);
+        }
+    }
+}
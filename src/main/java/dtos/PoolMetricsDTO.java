@@ -0,0 +1,136 @@
+package dtos;
+
+import java.util.Map;
+
+public class PoolMetricsDTO {
+    private final String pool;
+    private final Integer active;
+    private final Integer idle;
+    private final Integer waiting;
+    private final Integer total;
+    private final Integer max_size;
+    private final Long timeouts;
+    private final Long acquire_count;
+    private final Double acquire_time_sum_ms;
+    private final Map<String, Long> acquire_time_histogram;
+
+    private PoolMetricsDTO(Builder builder) {
+        this.pool = builder.pool;
+        this.active = builder.active;
+        this.idle = builder.idle;
+        this.waiting = builder.waiting;
+        this.total = builder.total;
+        this.max_size = builder.maxSize;
+        this.timeouts = builder.timeouts;
+        this.acquire_count = builder.acquireCount;
+        this.acquire_time_sum_ms = builder.acquireTimeSumMs;
+        this.acquire_time_histogram = builder.acquireTimeHistogram;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public Integer getActive() {
+        return active;
+    }
+
+    public Integer getIdle() {
+        return idle;
+    }
+
+    public Integer getWaiting() {
+        return waiting;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public Integer getMaxSize() {
+        return max_size;
+    }
+
+    public Long getTimeouts() {
+        return timeouts;
+    }
+
+    public Long getAcquireCount() {
+        return acquire_count;
+    }
+
+    public Double getAcquireTimeSumMs() {
+        return acquire_time_sum_ms;
+    }
+
+    public Map<String, Long> getAcquireTimeHistogram() {
+        return acquire_time_histogram;
+    }
+
+    public static class Builder {
+        private String pool;
+        private Integer active;
+        private Integer idle;
+        private Integer waiting;
+        private Integer total;
+        private Integer maxSize;
+        private Long timeouts;
+        private Long acquireCount;
+        private Double acquireTimeSumMs;
+        private Map<String, Long> acquireTimeHistogram;
+
+        public Builder setPool(String pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public Builder setActive(Integer active) {
+            this.active = active;
+            return this;
+        }
+
+        public Builder setIdle(Integer idle) {
+            this.idle = idle;
+            return this;
+        }
+
+        public Builder setWaiting(Integer waiting) {
+            this.waiting = waiting;
+            return this;
+        }
+
+        public Builder setTotal(Integer total) {
+            this.total = total;
+            return this;
+        }
+
+        public Builder setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Builder setTimeouts(Long timeouts) {
+            this.timeouts = timeouts;
+            return this;
+        }
+
+        public Builder setAcquireCount(Long acquireCount) {
+            this.acquireCount = acquireCount;
+            return this;
+        }
+
+        public Builder setAcquireTimeSumMs(Double acquireTimeSumMs) {
+            this.acquireTimeSumMs = acquireTimeSumMs;
+            return this;
+        }
+
+        public Builder setAcquireTimeHistogram(Map<String, Long> acquireTimeHistogram) {
+            this.acquireTimeHistogram = acquireTimeHistogram;
+            return this;
+        }
+
+        public PoolMetricsDTO build() {
+            return new PoolMetricsDTO(this);
+        }
+    }
+}
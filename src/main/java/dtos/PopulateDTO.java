@@ -1,7 +1,11 @@
 package dtos;
 
 public class PopulateDTO {
-    private String secret;
+    private final String secret;
+
+    public PopulateDTO(String secret) {
+        this.secret = secret;
+    }
 
     public String getSecret() {
         return secret;
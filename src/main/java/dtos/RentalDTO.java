@@ -55,6 +55,10 @@ public class RentalDTO {
         return house;
     }
 
+    public List<String> getTenants() {
+        return tenants;
+    }
+
     public Integer getHouseId() {
         return house_id;
     }
@@ -29,10 +29,26 @@ public class TenantDTO {
         return name;
     }
 
+    public Integer getPhone() {
+        return phone;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public Integer getUserId() {
+        return user_id;
+    }
+
     public List<String> getRentals() {
         return rentals;
     }
 
+    public List<Integer> getRentalIds() {
+        return rental_ids;
+    }
+
     public static class Builder {
         private Integer id;
         private String name;
@@ -72,6 +88,11 @@ public class TenantDTO {
             return this;
         }
 
+        public Builder setRentalIds(List<Integer> rentalIds) {
+            this.rentalIds = rentalIds;
+            return this;
+        }
+
         public TenantDTO build() {
             return new TenantDTO(this);
         }
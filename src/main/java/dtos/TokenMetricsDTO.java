@@ -0,0 +1,88 @@
+package dtos;
+
+import java.util.Map;
+
+public class TokenMetricsDTO {
+    private final Integer cache_size;
+    private final Long cache_hits;
+    private final Long cache_misses;
+    private final Long verify_count;
+    private final Double verify_time_sum_ms;
+    private final Map<String, Long> verify_time_histogram;
+
+    private TokenMetricsDTO(Builder builder) {
+        this.cache_size = builder.cacheSize;
+        this.cache_hits = builder.cacheHits;
+        this.cache_misses = builder.cacheMisses;
+        this.verify_count = builder.verifyCount;
+        this.verify_time_sum_ms = builder.verifyTimeSumMs;
+        this.verify_time_histogram = builder.verifyTimeHistogram;
+    }
+
+    public Integer getCacheSize() {
+        return cache_size;
+    }
+
+    public Long getCacheHits() {
+        return cache_hits;
+    }
+
+    public Long getCacheMisses() {
+        return cache_misses;
+    }
+
+    public Long getVerifyCount() {
+        return verify_count;
+    }
+
+    public Double getVerifyTimeSumMs() {
+        return verify_time_sum_ms;
+    }
+
+    public Map<String, Long> getVerifyTimeHistogram() {
+        return verify_time_histogram;
+    }
+
+    public static class Builder {
+        private Integer cacheSize;
+        private Long cacheHits;
+        private Long cacheMisses;
+        private Long verifyCount;
+        private Double verifyTimeSumMs;
+        private Map<String, Long> verifyTimeHistogram;
+
+        public Builder setCacheSize(Integer cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder setCacheHits(Long cacheHits) {
+            this.cacheHits = cacheHits;
+            return this;
+        }
+
+        public Builder setCacheMisses(Long cacheMisses) {
+            this.cacheMisses = cacheMisses;
+            return this;
+        }
+
+        public Builder setVerifyCount(Long verifyCount) {
+            this.verifyCount = verifyCount;
+            return this;
+        }
+
+        public Builder setVerifyTimeSumMs(Double verifyTimeSumMs) {
+            this.verifyTimeSumMs = verifyTimeSumMs;
+            return this;
+        }
+
+        public Builder setVerifyTimeHistogram(Map<String, Long> verifyTimeHistogram) {
+            this.verifyTimeHistogram = verifyTimeHistogram;
+            return this;
+        }
+
+        public TokenMetricsDTO build() {
+            return new TokenMetricsDTO(this);
+        }
+    }
+}
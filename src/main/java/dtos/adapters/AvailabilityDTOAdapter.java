@@ -0,0 +1,64 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dtos.AvailabilityDTO;
+import dtos.PeriodDTO;
+
+import java.io.IOException;
+
+public class AvailabilityDTOAdapter extends TypeAdapter<AvailabilityDTO> {
+    private final TypeAdapter<PeriodDTO> periodDTOAdapter = new PeriodDTOAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter out, AvailabilityDTO availabilityDTO) throws IOException {
+        out.beginObject();
+        out.name("house_id").value(availabilityDTO.getHouseId());
+        out.name("from").value(availabilityDTO.getFrom());
+        out.name("to").value(availabilityDTO.getTo());
+        out.name("available").value(availabilityDTO.getAvailable());
+        out.name("rented");
+        JsonValues.writeList(out, availabilityDTO.getRented(), periodDTOAdapter);
+        out.name("free");
+        JsonValues.writeList(out, availabilityDTO.getFree(), periodDTOAdapter);
+        out.endObject();
+    }
+
+    @Override
+    public AvailabilityDTO read(JsonReader in) throws IOException {
+        AvailabilityDTO.Builder builder = new AvailabilityDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "house_id":
+                    builder.setHouseId(JsonValues.readInteger(in));
+                    break;
+                case "from":
+                    builder.setFrom(JsonValues.readString(in));
+                    break;
+                case "to":
+                    builder.setTo(JsonValues.readString(in));
+                    break;
+                case "available":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        builder.setAvailable(in.nextBoolean());
+                    }
+                    break;
+                case "rented":
+                    builder.setRented(JsonValues.readList(in, periodDTOAdapter));
+                    break;
+                case "free":
+                    builder.setFree(JsonValues.readList(in, periodDTOAdapter));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.BatchResultDTO;
+
+import java.io.IOException;
+
+public class BatchResultDTOAdapter extends TypeAdapter<BatchResultDTO> {
+
+    @Override
+    public void write(JsonWriter out, BatchResultDTO batchResultDTO) throws IOException {
+        out.beginObject();
+        out.name("index").value(batchResultDTO.getIndex());
+        out.name("status").value(batchResultDTO.getStatus());
+        out.name("id").value(batchResultDTO.getId());
+        out.name("message").value(batchResultDTO.getMessage());
+        out.endObject();
+    }
+
+    @Override
+    public BatchResultDTO read(JsonReader in) throws IOException {
+        BatchResultDTO.Builder builder = new BatchResultDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "index":
+                    builder.setIndex(JsonValues.readInteger(in));
+                    break;
+                case "status":
+                    builder.setStatus(JsonValues.readInteger(in));
+                    break;
+                case "id":
+                    builder.setId(JsonValues.readInteger(in));
+                    break;
+                case "message":
+                    builder.setMessage(JsonValues.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.CacheMetricsDTO;
+
+import java.io.IOException;
+
+public class CacheMetricsDTOAdapter extends TypeAdapter<CacheMetricsDTO> {
+
+    @Override
+    public void write(JsonWriter out, CacheMetricsDTO cacheMetricsDTO) throws IOException {
+        out.beginObject();
+        out.name("unit").value(cacheMetricsDTO.getUnit());
+        out.name("entity").value(cacheMetricsDTO.getEntity());
+        out.name("hits").value(cacheMetricsDTO.getHits());
+        out.name("misses").value(cacheMetricsDTO.getMisses());
+        out.endObject();
+    }
+
+    @Override
+    public CacheMetricsDTO read(JsonReader in) throws IOException {
+        CacheMetricsDTO.Builder builder = new CacheMetricsDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "unit":
+                    builder.setUnit(JsonValues.readString(in));
+                    break;
+                case "entity":
+                    builder.setEntity(JsonValues.readString(in));
+                    break;
+                case "hits":
+                    builder.setHits(JsonValues.readLong(in));
+                    break;
+                case "misses":
+                    builder.setMisses(JsonValues.readLong(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
@@ -0,0 +1,55 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.EntityManagerMetricsDTO;
+
+import java.io.IOException;
+
+public class EntityManagerMetricsDTOAdapter extends TypeAdapter<EntityManagerMetricsDTO> {
+
+    @Override
+    public void write(JsonWriter out, EntityManagerMetricsDTO entityManagerMetricsDTO) throws IOException {
+        out.beginObject();
+        out.name("opened").value(entityManagerMetricsDTO.getOpened());
+        out.name("closed").value(entityManagerMetricsDTO.getClosed());
+        out.name("open").value(entityManagerMetricsDTO.getOpen());
+        out.name("leaked").value(entityManagerMetricsDTO.getLeaked());
+        out.name("overdue").value(entityManagerMetricsDTO.getOverdue());
+        out.name("threshold_ms").value(entityManagerMetricsDTO.getThresholdMs());
+        out.endObject();
+    }
+
+    @Override
+    public EntityManagerMetricsDTO read(JsonReader in) throws IOException {
+        EntityManagerMetricsDTO.Builder builder = new EntityManagerMetricsDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "opened":
+                    builder.setOpened(JsonValues.readLong(in));
+                    break;
+                case "closed":
+                    builder.setClosed(JsonValues.readLong(in));
+                    break;
+                case "open":
+                    builder.setOpen(JsonValues.readInteger(in));
+                    break;
+                case "leaked":
+                    builder.setLeaked(JsonValues.readLong(in));
+                    break;
+                case "overdue":
+                    builder.setOverdue(JsonValues.readLong(in));
+                    break;
+                case "threshold_ms":
+                    builder.setThresholdMs(JsonValues.readLong(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
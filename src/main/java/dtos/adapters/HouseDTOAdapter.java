@@ -0,0 +1,48 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.HouseDTO;
+
+import java.io.IOException;
+
+//The rentals of a house are entities and never sent as part of a HouseDTO, so they are left out
+public class HouseDTOAdapter extends TypeAdapter<HouseDTO> {
+
+    @Override
+    public void write(JsonWriter out, HouseDTO houseDTO) throws IOException {
+        out.beginObject();
+        out.name("id").value(houseDTO.getId());
+        out.name("address").value(houseDTO.getAddress());
+        out.name("city").value(houseDTO.getCity());
+        out.name("number_of_rooms").value(houseDTO.getNumberOfRooms());
+        out.endObject();
+    }
+
+    @Override
+    public HouseDTO read(JsonReader in) throws IOException {
+        HouseDTO.Builder builder = new HouseDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    builder.setId(JsonValues.readInteger(in));
+                    break;
+                case "address":
+                    builder.setAddress(JsonValues.readString(in));
+                    break;
+                case "city":
+                    builder.setCity(JsonValues.readString(in));
+                    break;
+                case "number_of_rooms":
+                    builder.setNumberOfRooms(JsonValues.readInteger(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
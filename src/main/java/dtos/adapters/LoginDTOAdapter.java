@@ -0,0 +1,43 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.LoginDTO;
+
+import java.io.IOException;
+
+public class LoginDTOAdapter extends TypeAdapter<LoginDTO> {
+
+    @Override
+    public void write(JsonWriter out, LoginDTO loginDTO) throws IOException {
+        out.beginObject();
+        out.name("username").value(loginDTO.getUsername());
+        out.name("password").value(loginDTO.getPassword());
+        out.name("token").value(loginDTO.getToken());
+        out.endObject();
+    }
+
+    @Override
+    public LoginDTO read(JsonReader in) throws IOException {
+        LoginDTO.Builder builder = new LoginDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username":
+                    builder.setUsername(JsonValues.readString(in));
+                    break;
+                case "password":
+                    builder.setPassword(JsonValues.readString(in));
+                    break;
+                case "token":
+                    builder.setToken(JsonValues.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
@@ -0,0 +1,43 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.PeriodDTO;
+
+import java.io.IOException;
+
+public class PeriodDTOAdapter extends TypeAdapter<PeriodDTO> {
+
+    @Override
+    public void write(JsonWriter out, PeriodDTO periodDTO) throws IOException {
+        out.beginObject();
+        out.name("rental_id").value(periodDTO.getRentalId());
+        out.name("start_date").value(periodDTO.getStartDate());
+        out.name("end_date").value(periodDTO.getEndDate());
+        out.endObject();
+    }
+
+    @Override
+    public PeriodDTO read(JsonReader in) throws IOException {
+        PeriodDTO.Builder builder = new PeriodDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "rental_id":
+                    builder.setRentalId(JsonValues.readInteger(in));
+                    break;
+                case "start_date":
+                    builder.setStartDate(JsonValues.readString(in));
+                    break;
+                case "end_date":
+                    builder.setEndDate(JsonValues.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
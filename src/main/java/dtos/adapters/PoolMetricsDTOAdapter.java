@@ -0,0 +1,72 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.PoolMetricsDTO;
+
+import java.io.IOException;
+
+public class PoolMetricsDTOAdapter extends TypeAdapter<PoolMetricsDTO> {
+
+    @Override
+    public void write(JsonWriter out, PoolMetricsDTO poolMetricsDTO) throws IOException {
+        out.beginObject();
+        out.name("pool").value(poolMetricsDTO.getPool());
+        out.name("active").value(poolMetricsDTO.getActive());
+        out.name("idle").value(poolMetricsDTO.getIdle());
+        out.name("waiting").value(poolMetricsDTO.getWaiting());
+        out.name("total").value(poolMetricsDTO.getTotal());
+        out.name("max_size").value(poolMetricsDTO.getMaxSize());
+        out.name("timeouts").value(poolMetricsDTO.getTimeouts());
+        out.name("acquire_count").value(poolMetricsDTO.getAcquireCount());
+        out.name("acquire_time_sum_ms").value(poolMetricsDTO.getAcquireTimeSumMs());
+        out.name("acquire_time_histogram");
+        JsonValues.writeLongMap(out, poolMetricsDTO.getAcquireTimeHistogram());
+        out.endObject();
+    }
+
+    @Override
+    public PoolMetricsDTO read(JsonReader in) throws IOException {
+        PoolMetricsDTO.Builder builder = new PoolMetricsDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pool":
+                    builder.setPool(JsonValues.readString(in));
+                    break;
+                case "active":
+                    builder.setActive(JsonValues.readInteger(in));
+                    break;
+                case "idle":
+                    builder.setIdle(JsonValues.readInteger(in));
+                    break;
+                case "waiting":
+                    builder.setWaiting(JsonValues.readInteger(in));
+                    break;
+                case "total":
+                    builder.setTotal(JsonValues.readInteger(in));
+                    break;
+                case "max_size":
+                    builder.setMaxSize(JsonValues.readInteger(in));
+                    break;
+                case "timeouts":
+                    builder.setTimeouts(JsonValues.readLong(in));
+                    break;
+                case "acquire_count":
+                    builder.setAcquireCount(JsonValues.readLong(in));
+                    break;
+                case "acquire_time_sum_ms":
+                    builder.setAcquireTimeSumMs(JsonValues.readDouble(in));
+                    break;
+                case "acquire_time_histogram":
+                    builder.setAcquireTimeHistogram(JsonValues.readLongMap(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
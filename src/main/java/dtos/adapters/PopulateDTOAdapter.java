@@ -0,0 +1,33 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.PopulateDTO;
+
+import java.io.IOException;
+
+public class PopulateDTOAdapter extends TypeAdapter<PopulateDTO> {
+
+    @Override
+    public void write(JsonWriter out, PopulateDTO populateDTO) throws IOException {
+        out.beginObject();
+        out.name("secret").value(populateDTO.getSecret());
+        out.endObject();
+    }
+
+    @Override
+    public PopulateDTO read(JsonReader in) throws IOException {
+        String secret = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("secret".equals(in.nextName())) {
+                secret = JsonValues.readString(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PopulateDTO(secret);
+    }
+}
@@ -0,0 +1,79 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.RentalDTO;
+
+import java.io.IOException;
+
+public class RentalDTOAdapter extends TypeAdapter<RentalDTO> {
+    private final HouseDTOAdapter houseDTOAdapter = new HouseDTOAdapter();
+
+    @Override
+    public void write(JsonWriter out, RentalDTO rentalDTO) throws IOException {
+        out.beginObject();
+        out.name("id").value(rentalDTO.getId());
+        out.name("start_date").value(rentalDTO.getStartDate());
+        out.name("end_date").value(rentalDTO.getEndDate());
+        out.name("price_annual").value(rentalDTO.getPriceAnnual());
+        out.name("deposit").value(rentalDTO.getDeposit());
+        out.name("contact_person").value(rentalDTO.getContactPerson());
+        out.name("house");
+        if (rentalDTO.getHouse() == null) {
+            out.nullValue();
+        } else {
+            houseDTOAdapter.write(out, rentalDTO.getHouse());
+        }
+        out.name("tenants");
+        JsonValues.writeStrings(out, rentalDTO.getTenants());
+        out.name("house_id").value(rentalDTO.getHouseId());
+        out.name("tenant_ids");
+        JsonValues.writeIntegers(out, rentalDTO.getTenantIds());
+        out.endObject();
+    }
+
+    @Override
+    public RentalDTO read(JsonReader in) throws IOException {
+        RentalDTO.Builder builder = new RentalDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    builder.setId(JsonValues.readInteger(in));
+                    break;
+                case "start_date":
+                    builder.setStartDate(JsonValues.readString(in));
+                    break;
+                case "end_date":
+                    builder.setEndDate(JsonValues.readString(in));
+                    break;
+                case "price_annual":
+                    builder.setPriceAnnual(JsonValues.readInteger(in));
+                    break;
+                case "deposit":
+                    builder.setDeposit(JsonValues.readInteger(in));
+                    break;
+                case "contact_person":
+                    builder.setContactPerson(JsonValues.readString(in));
+                    break;
+                case "house":
+                    builder.setHouse(houseDTOAdapter.nullSafe().read(in));
+                    break;
+                case "tenants":
+                    builder.setTenants(JsonValues.readStrings(in));
+                    break;
+                case "house_id":
+                    builder.setHouseId(JsonValues.readInteger(in));
+                    break;
+                case "tenant_ids":
+                    builder.setTenantIds(JsonValues.readIntegers(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
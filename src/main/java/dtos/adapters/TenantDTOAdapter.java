@@ -0,0 +1,61 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.TenantDTO;
+
+import java.io.IOException;
+
+public class TenantDTOAdapter extends TypeAdapter<TenantDTO> {
+
+    @Override
+    public void write(JsonWriter out, TenantDTO tenantDTO) throws IOException {
+        out.beginObject();
+        out.name("id").value(tenantDTO.getId());
+        out.name("name").value(tenantDTO.getName());
+        out.name("phone").value(tenantDTO.getPhone());
+        out.name("job").value(tenantDTO.getJob());
+        out.name("user_id").value(tenantDTO.getUserId());
+        out.name("rentals");
+        JsonValues.writeStrings(out, tenantDTO.getRentals());
+        out.name("rental_ids");
+        JsonValues.writeIntegers(out, tenantDTO.getRentalIds());
+        out.endObject();
+    }
+
+    @Override
+    public TenantDTO read(JsonReader in) throws IOException {
+        TenantDTO.Builder builder = new TenantDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    builder.setId(JsonValues.readInteger(in));
+                    break;
+                case "name":
+                    builder.setName(JsonValues.readString(in));
+                    break;
+                case "phone":
+                    builder.setPhone(JsonValues.readInteger(in));
+                    break;
+                case "job":
+                    builder.setJob(JsonValues.readString(in));
+                    break;
+                case "user_id":
+                    builder.setUserId(JsonValues.readInteger(in));
+                    break;
+                case "rentals":
+                    builder.setRentals(JsonValues.readStrings(in));
+                    break;
+                case "rental_ids":
+                    builder.setRentalIds(JsonValues.readIntegers(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
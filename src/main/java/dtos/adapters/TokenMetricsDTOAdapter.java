@@ -0,0 +1,56 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.TokenMetricsDTO;
+
+import java.io.IOException;
+
+public class TokenMetricsDTOAdapter extends TypeAdapter<TokenMetricsDTO> {
+
+    @Override
+    public void write(JsonWriter out, TokenMetricsDTO tokenMetricsDTO) throws IOException {
+        out.beginObject();
+        out.name("cache_size").value(tokenMetricsDTO.getCacheSize());
+        out.name("cache_hits").value(tokenMetricsDTO.getCacheHits());
+        out.name("cache_misses").value(tokenMetricsDTO.getCacheMisses());
+        out.name("verify_count").value(tokenMetricsDTO.getVerifyCount());
+        out.name("verify_time_sum_ms").value(tokenMetricsDTO.getVerifyTimeSumMs());
+        out.name("verify_time_histogram");
+        JsonValues.writeLongMap(out, tokenMetricsDTO.getVerifyTimeHistogram());
+        out.endObject();
+    }
+
+    @Override
+    public TokenMetricsDTO read(JsonReader in) throws IOException {
+        TokenMetricsDTO.Builder builder = new TokenMetricsDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "cache_size":
+                    builder.setCacheSize(JsonValues.readInteger(in));
+                    break;
+                case "cache_hits":
+                    builder.setCacheHits(JsonValues.readLong(in));
+                    break;
+                case "cache_misses":
+                    builder.setCacheMisses(JsonValues.readLong(in));
+                    break;
+                case "verify_count":
+                    builder.setVerifyCount(JsonValues.readLong(in));
+                    break;
+                case "verify_time_sum_ms":
+                    builder.setVerifyTimeSumMs(JsonValues.readDouble(in));
+                    break;
+                case "verify_time_histogram":
+                    builder.setVerifyTimeHistogram(JsonValues.readLongMap(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
@@ -0,0 +1,52 @@
+package dtos.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import dtos.UserDTO;
+
+import java.io.IOException;
+
+public class UserDTOAdapter extends TypeAdapter<UserDTO> {
+
+    @Override
+    public void write(JsonWriter out, UserDTO userDTO) throws IOException {
+        out.beginObject();
+        out.name("id").value(userDTO.getId());
+        out.name("username").value(userDTO.getUsername());
+        out.name("password").value(userDTO.getPassword());
+        out.name("age").value(userDTO.getAge());
+        out.name("roles");
+        JsonValues.writeStrings(out, userDTO.getRoles());
+        out.endObject();
+    }
+
+    @Override
+    public UserDTO read(JsonReader in) throws IOException {
+        UserDTO.Builder builder = new UserDTO.Builder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    builder.setId(JsonValues.readInteger(in));
+                    break;
+                case "username":
+                    builder.setUsername(JsonValues.readString(in));
+                    break;
+                case "password":
+                    builder.setPassword(JsonValues.readString(in));
+                    break;
+                case "age":
+                    builder.setAge(JsonValues.readInteger(in));
+                    break;
+                case "roles":
+                    builder.setRoles(JsonValues.readStrings(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
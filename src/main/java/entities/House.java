@@ -4,13 +4,19 @@ import javax.persistence.Entity;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.eclipse.persistence.annotations.Cache;
 import java.util.*;
 
 @Entity
+@Cacheable
+@Cache(size = 1000, expiry = 600000) //Houses rarely change, kept for 10 minutes
 @Table(name = "houses")
 public class House implements entities.Entity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "houses_id")
+    @TableGenerator(name = "houses_id", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "houses",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Integer id;
 
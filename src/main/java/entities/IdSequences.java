@@ -0,0 +1,16 @@
+package entities;
+
+/* The ids of every entity are taken from rows of one sequence table instead of AUTO_INCREMENT columns, so
+ * EclipseLink knows the id before the INSERT and can send the inserts of a commit as JDBC batches.
+ * Ids are preallocated ALLOCATION_SIZE at a time, one row per table holds the last id handed out.
+ * The size can be changed without a rebuild, see utils.PooledConnectionCustomizer. */
+public final class IdSequences {
+    public static final String TABLE = "id_sequences";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "last_id";
+    //The same as utils.EMF_Creator.BATCH_WRITING_SIZE, so a full batch of inserts costs one sequence update
+    public static final int ALLOCATION_SIZE = 100;
+
+    private IdSequences() {
+    }
+}
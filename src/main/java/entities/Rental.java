@@ -4,25 +4,31 @@ import javax.persistence.Entity;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.time.LocalDate;
 import java.util.*;
 
 @Entity
-@Table(name = "rentals")
+//houses_id, start_date, end_date serves the date ranges of one house, end_date, start_date the ones across all houses
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_house_dates", columnList = "houses_id, start_date, end_date"),
+        @Index(name = "idx_rentals_end_date", columnList = "end_date, start_date")
+})
 public class Rental implements entities.Entity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "rentals_id")
+    @TableGenerator(name = "rentals_id", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "rentals",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Integer id;
 
-    @Size(max = 75)
     @NotNull
-    @Column(name = "start_date", nullable = false, length = 75)
-    private String startDate;
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
 
-    @Size(max = 75)
     @NotNull
-    @Column(name = "end_date", nullable = false, length = 75)
-    private String endDate;
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
 
     @NotNull
     @Column(name = "price_annual", nullable = false)
@@ -42,16 +48,18 @@ public class Rental implements entities.Entity {
     @JoinColumn(name = "houses_id", nullable = false)
     private House house;
 
+    //The primary key (rental_id, tenant_id) serves the tenants of a rental, the index the rentals of a tenant
     @ManyToMany
     @JoinTable(name = "tenants_rentals",
             joinColumns = @JoinColumn(name = "rental_id"),
-            inverseJoinColumns = @JoinColumn(name = "tenant_id"))
+            inverseJoinColumns = @JoinColumn(name = "tenant_id"),
+            indexes = @Index(name = "idx_tenants_rentals_tenant", columnList = "tenant_id, rental_id"))
     private List<Tenant> tenants = new ArrayList<>();
 
     public Rental() {
     }
 
-    public Rental(String startDate, String endDate, Integer priceAnnual, Integer deposit,
+    public Rental(LocalDate startDate, LocalDate endDate, Integer priceAnnual, Integer deposit,
                   String contactPerson, House house, List<Tenant> tenants) {
         this.startDate = startDate;
         this.endDate = endDate;
@@ -70,19 +78,19 @@ public class Rental implements entities.Entity {
         this.id = id;
     }
 
-    public String getStartDate() {
+    public LocalDate getStartDate() {
         return startDate;
     }
 
-    public void setStartDate(String startDate) {
+    public void setStartDate(LocalDate startDate) {
         this.startDate = startDate;
     }
 
-    public String getEndDate() {
+    public LocalDate getEndDate() {
         return endDate;
     }
 
-    public void setEndDate(String endDate) {
+    public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
     }
 
@@ -6,15 +6,21 @@ import java.util.Objects;
 import javax.persistence.Entity;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
+import org.eclipse.persistence.annotations.Cache;
 
 
 @Entity
+@Cacheable
+@Cache(size = 50, expiry = 3600000) //Roles are effectively static, kept for an hour
 @Table(name = "roles")
 public class Role implements Serializable, entities.Entity {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "roles_id")
+    @TableGenerator(name = "roles_id", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "roles",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Integer id;
 
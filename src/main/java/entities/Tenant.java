@@ -4,13 +4,20 @@ import javax.persistence.Entity;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.eclipse.persistence.annotations.Cache;
 import java.util.*;
 
 @Entity
-@Table(name = "tenants")
+@Cacheable
+@Cache(size = 1000, expiry = 300000) //Kept for 5 minutes
+//user_id serves the tenants, and through them the rentals, of one user
+@Table(name = "tenants", indexes = @Index(name = "idx_tenants_user", columnList = "user_id"))
 public class Tenant implements entities.Entity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tenants_id")
+    @TableGenerator(name = "tenants_id", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "tenants",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Integer id;
 
@@ -33,6 +40,7 @@ public class Tenant implements entities.Entity {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    //The same join table as Rental.tenants, its index is declared there
     @ManyToMany
     @JoinTable(name = "tenants_rentals",
             joinColumns = @JoinColumn(name = "tenant_id"),
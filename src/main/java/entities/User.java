@@ -9,6 +9,7 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 @Entity
 @Table(name = "users")
@@ -16,7 +17,10 @@ public class User implements Serializable, entities.Entity {
     public static final int MINIMUM_PASSWORD_LENGTH = 4;
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_id")
+    @TableGenerator(name = "users_id", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "users",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id", nullable = false)
     private Integer id;
 
@@ -36,6 +40,8 @@ public class User implements Serializable, entities.Entity {
     @OneToOne(mappedBy = "user")
     private Tenant tenants;
 
+    /* The primary key (user_id, role_id) serves the roles of a user, the index of the role_id foreign key the users
+     * of a role. InnoDB secondary indexes carry the primary key, so it already covers (role_id, user_id) */
     @ManyToMany
     @JoinTable(name = "users_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -56,21 +62,30 @@ public class User implements Serializable, entities.Entity {
         return BCrypt.checkpw(pw, password);
     }
 
-    private String validateAndHashPassword(String password) throws InvalidPasswordException {
+    private String validateAndHashPassword(String password, UnaryOperator<String> hasher) throws InvalidPasswordException {
         if(password.length() < MINIMUM_PASSWORD_LENGTH) {
             throw new InvalidPasswordException("Password is too short");
         }
+        return hasher.apply(password);
+    }
+
+    private static String hashPassword(String password) {
         return BCrypt.hashpw(password, BCrypt.gensalt());
     }
 
     public User(String username, String password) throws InvalidPasswordException {
         this.username = username;
-        this.password = validateAndHashPassword(password);
+        this.password = validateAndHashPassword(password, User::hashPassword);
     }
 
     public User(String username, String password, int age) throws InvalidPasswordException {
+        this(username, password, age, User::hashPassword);
+    }
+
+    //The hasher gets the validated password, UserResource hashes on the PasswordHashingExecutor
+    public User(String username, String password, int age, UnaryOperator<String> hasher) throws InvalidPasswordException {
         this.username = username;
-        this.password = validateAndHashPassword(password);
+        this.password = validateAndHashPassword(password, hasher);
         this.age = age;
     }
 
@@ -0,0 +1,44 @@
+package errorhandling;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class ExceptionDTOAdapter extends TypeAdapter<ExceptionDTO> {
+
+    @Override
+    public void write(JsonWriter out, ExceptionDTO exceptionDTO) throws IOException {
+        out.beginObject();
+        out.name("code").value(exceptionDTO.getCode());
+        out.name("message").value(exceptionDTO.getMessage());
+        out.endObject();
+    }
+
+    @Override
+    public ExceptionDTO read(JsonReader in) throws IOException {
+        int code = 0;
+        String message = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "code":
+                    code = in.nextInt();
+                    break;
+                case "message":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        message = in.nextString();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ExceptionDTO(code, message);
+    }
+}
@@ -1,8 +1,5 @@
 package errorhandling;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.ServletContext;
@@ -15,7 +12,6 @@ import javax.ws.rs.ext.Provider;
 
 @Provider
 public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
-    static Gson gson = new GsonBuilder().setPrettyPrinting().create();
     @Context
     ServletContext context;
 
@@ -35,7 +31,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             }
         }
         return Response.status(type.getStatusCode())
-                .entity(gson.toJson(err))
+                .entity(err)
                 .type(MediaType.APPLICATION_JSON).
                 build();
     }
@@ -49,9 +45,8 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
 
     public static Response makeErrRes(String msg, int status) {
         ExceptionDTO error = new ExceptionDTO(status, msg);
-        String errJson = gson.toJson(error);
         return Response.status(error.getCode())
-                .entity(errJson)
+                .entity(error)
                 .type(MediaType.APPLICATION_JSON)
                 .build();
     }
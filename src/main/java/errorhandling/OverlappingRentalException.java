@@ -0,0 +1,7 @@
+package errorhandling;
+
+public class OverlappingRentalException extends Exception{
+    public OverlappingRentalException(String message) {
+        super(message);
+    }
+}
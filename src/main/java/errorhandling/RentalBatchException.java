@@ -0,0 +1,18 @@
+package errorhandling;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+//Thrown when some rentals of a batch can not be created, with the reason for each of them by their index in the batch
+public class RentalBatchException extends Exception{
+    private final Map<Integer, Exception> failures;
+
+    public RentalBatchException(Map<Integer, Exception> failures) {
+        super(failures.size() + " of the rentals could not be created");
+        this.failures = new TreeMap<>(failures);
+    }
+
+    public Map<Integer, Exception> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,36 @@
+package facades;
+
+import entities.Entity;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/* Reads entities by their ids with IN queries of at most IN_CHUNK_SIZE ids each, so a long list of ids does not
+ * turn into one huge statement, and the entities are managed by the given persistence context */
+class EntityLookup {
+    static final int IN_CHUNK_SIZE = 500;
+
+    private EntityLookup() {
+    }
+
+    static <T extends Entity> Map<Integer, T> findByIds(EntityManager em, Class<T> type, Collection<Integer> ids) {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        String jpql = "SELECT e FROM " + type.getSimpleName() + " e WHERE e.id IN :ids";
+
+        Map<Integer, T> entities = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + IN_CHUNK_SIZE, distinctIds.size()));
+            for (T entity : em.createQuery(jpql, type).setParameter("ids", chunk).getResultList()) {
+                entities.put(entity.getId(), entity);
+            }
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,148 @@
+package facades;
+
+import javax.persistence.EntityManager;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Counts the EntityManagers UnitOfWork opens and closes, and notices the ones that are not closed in time.
+ * An EntityManager that is garbage collected while still open is counted as leaked, one that has been open for
+ * longer than EM_LEAK_THRESHOLD_MS (30 seconds unless set, like the pool's leak detection) as overdue. Both are
+ * logged once. EntityManagers are only weakly referenced, tracking one never keeps it from being collected.
+ *
+ * With EM_LEAK_DEBUG=true the stack of the code that opened each EntityManager is kept and logged with it.
+ * That costs a stack trace per EntityManager, so it is off by default.
+ * Both settings are system properties or environment variables (system properties win), read at startup. */
+public class EntityManagerTracker {
+    public static final long DEFAULT_THRESHOLD_MS = 30_000;
+    //The open EntityManagers are looked through for overdue ones at most this often
+    private static final long CHECK_INTERVAL_MS = 1_000;
+    private static final Logger LOGGER = Logger.getLogger(EntityManagerTracker.class.getName());
+
+    private static final ReferenceQueue<EntityManager> COLLECTED = new ReferenceQueue<>();
+    //EntityManagerImpl does not override equals, so this is an identity map with weak keys
+    private static final Map<EntityManager, Tracked> TRACKED = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Set<Tracked> OPEN = ConcurrentHashMap.newKeySet();
+
+    private static final LongAdder OPENED = new LongAdder();
+    private static final LongAdder CLOSED = new LongAdder();
+    private static final LongAdder LEAKED = new LongAdder();
+    private static final LongAdder OVERDUE = new LongAdder();
+    private static final AtomicLong NEXT_CHECK = new AtomicLong();
+
+    private static volatile boolean debug = Boolean.parseBoolean(getSetting("EM_LEAK_DEBUG", "false"));
+    private static volatile long thresholdMs = Long.parseLong(getSetting("EM_LEAK_THRESHOLD_MS",
+            String.valueOf(DEFAULT_THRESHOLD_MS)));
+
+    private EntityManagerTracker() {
+    }
+
+    static EntityManager opened(EntityManager em) {
+        Tracked tracked = new Tracked(em, debug ? new Throwable("The EntityManager was opened here") : null);
+        TRACKED.put(em, tracked);
+        OPEN.add(tracked);
+        OPENED.increment();
+        check();
+        return em;
+    }
+
+    static void closed(EntityManager em) {
+        Tracked tracked = TRACKED.remove(em);
+        if (tracked != null && OPEN.remove(tracked)) {
+            tracked.clear();
+            CLOSED.increment();
+        }
+    }
+
+    //Counts the EntityManagers collected while open since the last check, and the ones that are now overdue
+    public static void check() {
+        for (Reference<? extends EntityManager> reference; (reference = COLLECTED.poll()) != null; ) {
+            Tracked tracked = (Tracked) reference;
+            if (OPEN.remove(tracked)) {
+                LEAKED.increment();
+                log("An EntityManager was garbage collected without being closed", tracked);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long nextCheck = NEXT_CHECK.get();
+        if (now < nextCheck || !NEXT_CHECK.compareAndSet(nextCheck, now + CHECK_INTERVAL_MS)) {
+            return;
+        }
+        for (Tracked tracked : OPEN) {
+            if (!tracked.overdue && now - tracked.openedAt > thresholdMs) {
+                tracked.overdue = true;
+                OVERDUE.increment();
+                log("An EntityManager has been open for more than " + thresholdMs + " ms", tracked);
+            }
+        }
+    }
+
+    public static long getOpened() {
+        return OPENED.sum();
+    }
+
+    public static long getClosed() {
+        return CLOSED.sum();
+    }
+
+    public static int getOpen() {
+        return OPEN.size();
+    }
+
+    public static long getLeaked() {
+        return LEAKED.sum();
+    }
+
+    public static long getOverdue() {
+        return OVERDUE.sum();
+    }
+
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    public static long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    //For tests, the next check looks for overdue EntityManagers right away
+    static void configure(boolean _debug, long _thresholdMs) {
+        debug = _debug;
+        thresholdMs = _thresholdMs;
+        NEXT_CHECK.set(0);
+    }
+
+    private static void log(String message, Tracked tracked) {
+        if (tracked.openedBy != null) {
+            LOGGER.log(Level.WARNING, message, tracked.openedBy);
+        } else {
+            LOGGER.warning(message + ", set EM_LEAK_DEBUG=true to log where it was opened");
+        }
+    }
+
+    private static String getSetting(String name, String defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    private static class Tracked extends WeakReference<EntityManager> {
+        private final long openedAt = System.currentTimeMillis();
+        private final Throwable openedBy;
+        private volatile boolean overdue;
+
+        private Tracked(EntityManager em, Throwable openedBy) {
+            super(em, COLLECTED);
+            this.openedBy = openedBy;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package facades;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/* The facade of each EntityManagerFactory, behind the getFacade methods.
+ * Factories of the same persistence unit share one session, so closing one of them ends nothing a listener could
+ * see. The facades of closed factories are dropped instead whenever a facade is created for another factory,
+ * so a closed factory is not kept reachable beyond the next new one. */
+class FacadeInstances<F> {
+    private final Map<EntityManagerFactory, F> instances = new ConcurrentHashMap<>();
+    private final Function<EntityManagerFactory, F> constructor;
+
+    FacadeInstances(Function<EntityManagerFactory, F> constructor) {
+        this.constructor = constructor;
+    }
+
+    F get(EntityManagerFactory emf) {
+        F facade = instances.get(emf);
+        if (facade != null) {
+            return facade;
+        }
+        instances.keySet().removeIf(factory -> !factory.isOpen());
+        return instances.computeIfAbsent(emf, constructor);
+    }
+
+    int size() {
+        return instances.size();
+    }
+}
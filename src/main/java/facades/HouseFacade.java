@@ -1,33 +1,36 @@
 package facades;
 
+import dtos.AvailabilityDTO;
+import dtos.HouseDTO;
+import dtos.PeriodDTO;
 import entities.House;
+import utils.ApiDateFormat;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class HouseFacade {
-    private static EntityManagerFactory emf;
-    private static HouseFacade instance;
+    private static final FacadeInstances<HouseFacade> INSTANCES = new FacadeInstances<>(HouseFacade::new);
 
-    private HouseFacade() {
+    private final EntityManagerFactory emf;
+
+    private HouseFacade(EntityManagerFactory emf) {
+        this.emf = emf;
     }
 
     public static HouseFacade getFacade(EntityManagerFactory _emf) {
-        if (instance == null) {
-            emf = _emf;
-            instance = new HouseFacade();
-        }
-        return instance;
+        return INSTANCES.get(_emf);
     }
 
     public House getHouseById(int id) {
-        EntityManager em = emf.createEntityManager();
-
-        House house = em.find(House.class, id);
-        em.close();
+        House house = UnitOfWork.run(emf, em -> em.find(House.class, id));
 
         if (house == null) {
             throw new EntityNotFoundException("House does not exist in database");
@@ -37,12 +40,101 @@ public class HouseFacade {
     }
 
     public List<House> getAllHouses() {
-        EntityManager em = emf.createEntityManager();
+        return UnitOfWork.read(emf, em -> em.createQuery("SELECT h FROM House h", House.class).getResultList());
+    }
+
+    //Keyset pagination: houses with an id greater than after, ordered by id so the primary key index is used
+    public List<House> getHouses(Integer after, int limit, String city) {
+        StringBuilder jpql = new StringBuilder("SELECT h FROM House h WHERE 1 = 1");
+        if (after != null) {
+            jpql.append(" AND h.id > :after");
+        }
+        if (city != null) {
+            jpql.append(" AND h.city = :city");
+        }
+        jpql.append(" ORDER BY h.id");
+
+        return UnitOfWork.read(emf, em -> {
+            TypedQuery<House> query = em.createQuery(jpql.toString(), House.class);
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            if (city != null) {
+                query.setParameter("city", city);
+            }
+            return query.setMaxResults(limit).getResultList();
+        });
+    }
+
+    //Streams the houses with an id greater than after to the consumer, one at a time in id order
+    public void streamHouseDTOs(Integer after, String city, Consumer<HouseDTO> consumer) {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        StringBuilder jpql = new StringBuilder("SELECT h.id, h.address, h.city, h.numberOfRooms FROM House h WHERE 1 = 1");
+        if (after != null) {
+            jpql.append(" AND h.id > :after");
+        }
+        if (city != null) {
+            jpql.append(" AND h.city = :city");
+        }
+        jpql.append(" ORDER BY h.id");
+
+        try {
+            Query query = em.createQuery(jpql.toString());
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            if (city != null) {
+                query.setParameter("city", city);
+            }
+            ResultStreamer.forEachRow(query, row -> consumer.accept(new HouseDTO.Builder()
+                    .setId((Integer) row[0])
+                    .setAddress((String) row[1])
+                    .setCity((String) row[2])
+                    .setNumberOfRooms((Integer) row[3])
+                    .build()));
+        } finally {
+            UnitOfWork.release(em);
+        }
+    }
 
-        TypedQuery<House> query = em.createQuery("SELECT h FROM House h", House.class);
-        List<House> houses = query.getResultList();
-        em.close();
+    /* The rentals of the house overlapping [from, to] and the free periods between them, read from the RentalCalendar.
+     * Both dates are included, like the rental periods */
+    public AvailabilityDTO getAvailability(int houseId, LocalDate from, LocalDate to) {
+        getHouseById(houseId);
+        List<RentalCalendar.Period> rentedPeriods = RentalCalendar.getCalendar(emf).getHouseCalendar(houseId)
+                .getOverlapping(from, to);
+
+        List<PeriodDTO> rented = new ArrayList<>(rentedPeriods.size());
+        List<PeriodDTO> free = new ArrayList<>();
+        LocalDate firstFreeDate = from;
+        for (RentalCalendar.Period period : rentedPeriods) {
+            rented.add(buildPeriodDTO(period.getRentalId(), period.getStartDate(), period.getEndDate()));
+            if (period.getStartDate().isAfter(firstFreeDate)) {
+                free.add(buildPeriodDTO(null, firstFreeDate, period.getStartDate().minusDays(1)));
+            }
+            if (!period.getEndDate().isBefore(firstFreeDate)) {
+                firstFreeDate = period.getEndDate().plusDays(1);
+            }
+        }
+        if (!firstFreeDate.isAfter(to)) {
+            free.add(buildPeriodDTO(null, firstFreeDate, to));
+        }
+
+        return new AvailabilityDTO.Builder()
+                .setHouseId(houseId)
+                .setFrom(ApiDateFormat.format(from))
+                .setTo(ApiDateFormat.format(to))
+                .setAvailable(rented.isEmpty())
+                .setRented(rented)
+                .setFree(free)
+                .build();
+    }
 
-        return houses;
+    private PeriodDTO buildPeriodDTO(Integer rentalId, LocalDate startDate, LocalDate endDate) {
+        return new PeriodDTO.Builder()
+                .setRentalId(rentalId)
+                .setStartDate(ApiDateFormat.format(startDate))
+                .setEndDate(ApiDateFormat.format(endDate))
+                .build();
     }
 }
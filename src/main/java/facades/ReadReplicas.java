@@ -0,0 +1,85 @@
+package facades;
+
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.SessionEventListener;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* The read replicas of the EntityManagerFactories, registered by utils.EMF_Creator when DB_REPLICA_URL is set.
+ * Facade methods that only read declare it by going through UnitOfWork.read, which reads from the replica of the
+ * factory, except when
+ *   - the unit of work has committed a write, so a request reads its own writes from the primary from then on
+ *     (UnitOfWork.readFromPrimary does the same for a request that needs it without a write)
+ *   - anything was committed through the factory within the last maxLagMs, as the replica may not have it yet.
+ *     The ETags of the read endpoints are counted on the primary, a tag must not be sent with older data
+ * Like TableVersions this only knows the commits of this application, and maxLagMs should be above the lag the
+ * replica actually has. The replica is closed together with its primary. */
+public class ReadReplicas {
+    public static final long DEFAULT_MAX_LAG_MS = 1_000;
+
+    private static final Map<EntityManagerFactory, Replica> REPLICAS = new ConcurrentHashMap<>();
+
+    private ReadReplicas() {
+    }
+
+    public static void register(EntityManagerFactory primary, EntityManagerFactory replica, long maxLagMs) {
+        unregister(primary);
+        Replica registered = new Replica(replica, maxLagMs);
+        //Commits are seen on the committing thread, after the transaction of the database has committed
+        registered.listener = new SessionEventAdapter() {
+            @Override
+            public void postCommitUnitOfWork(SessionEvent event) {
+                registered.lastCommit = System.currentTimeMillis();
+                UnitOfWork.readFromPrimary();
+            }
+
+            @Override
+            public void postLogout(SessionEvent event) {
+                if (REPLICAS.remove(primary, registered) && replica.isOpen()) {
+                    replica.close();
+                }
+            }
+        };
+        JpaHelper.getServerSession(primary).getEventManager().addListener(registered.listener);
+        REPLICAS.put(primary, registered);
+    }
+
+    //The replica is left open
+    public static void unregister(EntityManagerFactory primary) {
+        Replica replica = REPLICAS.remove(primary);
+        if (replica != null && primary.isOpen()) {
+            JpaHelper.getServerSession(primary).getEventManager().removeListener(replica.listener);
+        }
+    }
+
+    public static EntityManagerFactory getReplica(EntityManagerFactory primary) {
+        Replica replica = REPLICAS.get(primary);
+        return replica == null ? null : replica.emf;
+    }
+
+    //The factory a read-only facade method reads from
+    static EntityManagerFactory route(EntityManagerFactory emf) {
+        Replica replica = REPLICAS.get(emf);
+        if (replica == null || UnitOfWork.isReadingFromPrimary()
+                || System.currentTimeMillis() - replica.lastCommit < replica.maxLagMs) {
+            return emf;
+        }
+        return replica.emf;
+    }
+
+    private static class Replica {
+        private final EntityManagerFactory emf;
+        private final long maxLagMs;
+        private SessionEventListener listener;
+        private volatile long lastCommit;
+
+        private Replica(EntityManagerFactory emf, long maxLagMs) {
+            this.emf = emf;
+            this.maxLagMs = maxLagMs;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package facades;
+
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* The rental periods of every house, kept in memory so a booking can be checked for overlaps without reading
+ * all the rentals of the house. The periods of a house are sorted by start date, and a period overlapping
+ * [start, end] must start between start - (the longest period of the house) and end, so only that slice of
+ * the set is looked at: O(log n) plus the few periods in the slice. The longest period is the longest one the
+ * house has now, it shrinks again when that rental is shortened or deleted.
+ * Periods include both their start and end date, like RentalFacade.getRentalDTOsActiveOn. A rental is a lease
+ * of whole days and its end date is the last day the tenant has the house, as in 01/01/2022 - 31/12/2022,
+ * so the next rental starts the day after. A handover on the same day would make both tenants hold the house
+ * on that day, which getRentalDTOsActiveOn and the free periods of HouseFacade.getAvailability would then show.
+ *
+ * The calendars are loaded by warmUp when the application starts, a house that is not loaded yet is read from
+ * the database the first time it is used. UserFacade keeps them up to date when rentals are created,
+ * updated and deleted, anything writing rentals around it has to call clear afterwards.
+ * It assumes this application is the only one writing rentals. */
+public class RentalCalendar {
+    private static final Map<Session, RentalCalendar> CALENDARS = new ConcurrentHashMap<>();
+
+    private volatile EntityManagerFactory emf;
+    private final Map<Integer, HouseCalendar> calendars = new ConcurrentHashMap<>();
+
+    private RentalCalendar(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /* One calendar per session, which is one per database: factories of the same persistence unit share a session
+     * and must share the calendar, or a booking through one would not be seen by the overlap checks of the other.
+     * It reads with any open factory of the session, and is dropped when the session logs out with the last one */
+    public static RentalCalendar getCalendar(EntityManagerFactory _emf) {
+        Session session = JpaHelper.getServerSession(_emf);
+        RentalCalendar calendar = CALENDARS.computeIfAbsent(session, key -> {
+            RentalCalendar created = new RentalCalendar(_emf);
+            key.getEventManager().addListener(new SessionEventAdapter() {
+                @Override
+                public void postLogout(SessionEvent event) {
+                    CALENDARS.remove(key, created);
+                }
+            });
+            return created;
+        });
+        if (!calendar.emf.isOpen()) {
+            calendar.emf = _emf;
+        }
+        return calendar;
+    }
+
+    //Loads the periods of all houses with one query
+    public void warmUp() {
+        List<Object[]> rows = UnitOfWork.runIsolated(emf, em -> em.createQuery(
+                "SELECT r.house.id, r.id, r.startDate, r.endDate FROM Rental r", Object[].class).getResultList());
+
+        Map<Integer, HouseCalendar> loaded = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            loaded.computeIfAbsent((Integer) row[0], houseId -> new HouseCalendar())
+                    .add(new Period((Integer) row[1], (LocalDate) row[2], (LocalDate) row[3]));
+        }
+        calendars.clear();
+        calendars.putAll(loaded);
+    }
+
+    //Forgets every house, they are read from the database again the next time they are used
+    public void clear() {
+        calendars.clear();
+    }
+
+    public HouseCalendar getHouseCalendar(int houseId) {
+        return calendars.computeIfAbsent(houseId, this::loadHouseCalendar);
+    }
+
+    //Uses the idx_rentals_house_dates index
+    private HouseCalendar loadHouseCalendar(int houseId) {
+        List<Object[]> rows = UnitOfWork.runIsolated(emf, em -> em.createQuery("SELECT r.id, r.startDate, r.endDate " +
+                "FROM Rental r WHERE r.house.id = :houseId", Object[].class)
+                .setParameter("houseId", houseId)
+                .getResultList());
+
+        HouseCalendar calendar = new HouseCalendar();
+        for (Object[] row : rows) {
+            calendar.add(new Period((Integer) row[0], (LocalDate) row[1], (LocalDate) row[2]));
+        }
+        return calendar;
+    }
+
+    /* The periods of one house. Booking a house locks its calendar from the overlap check until the rental
+     * is committed and added, so two bookings of the same house can not both pass the check */
+    public static class HouseCalendar {
+        private static final Comparator<Period> BY_START = Comparator.comparing(Period::getStartDate)
+                .thenComparing(Period::getRentalId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final NavigableSet<Period> periods = new TreeSet<>(BY_START);
+        private final Map<Integer, Period> periodsByRentalId = new HashMap<>();
+        //The number of periods of each length in days, the last key is the longest period of the house
+        private final NavigableMap<Long, Integer> lengths = new TreeMap<>();
+
+        private HouseCalendar() {
+        }
+
+        //The first period overlapping [start, end] other than the one of the rental with the excluded id, or null
+        public synchronized Period findOverlap(LocalDate start, LocalDate end, Integer excludedRentalId) {
+            for (Period period : slice(start, end)) {
+                if (!period.getEndDate().isBefore(start) && !period.getRentalId().equals(excludedRentalId)) {
+                    return period;
+                }
+            }
+            return null;
+        }
+
+        //The periods overlapping [start, end], sorted by start date
+        public synchronized List<Period> getOverlapping(LocalDate start, LocalDate end) {
+            List<Period> overlapping = new ArrayList<>();
+            for (Period period : slice(start, end)) {
+                if (!period.getEndDate().isBefore(start)) {
+                    overlapping.add(period);
+                }
+            }
+            return overlapping;
+        }
+
+        public synchronized void add(Period period) {
+            remove(period.getRentalId());
+            periods.add(period);
+            periodsByRentalId.put(period.getRentalId(), period);
+            lengths.merge(getDays(period), 1, Integer::sum);
+        }
+
+        public synchronized void remove(Integer rentalId) {
+            Period period = periodsByRentalId.remove(rentalId);
+            if (period != null) {
+                periods.remove(period);
+                lengths.computeIfPresent(getDays(period), (days, count) -> count == 1 ? null : count - 1);
+            }
+        }
+
+        public synchronized int size() {
+            return periods.size();
+        }
+
+        synchronized long getLongestDays() {
+            return lengths.isEmpty() ? 0 : lengths.lastKey();
+        }
+
+        private NavigableSet<Period> slice(LocalDate start, LocalDate end) {
+            return periods.subSet(new Period(null, start.minusDays(getLongestDays()), null), true,
+                    new Period(Integer.MAX_VALUE, end, null), true);
+        }
+
+        private static long getDays(Period period) {
+            return ChronoUnit.DAYS.between(period.getStartDate(), period.getEndDate());
+        }
+    }
+
+    public static class Period {
+        private final Integer rentalId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        public Period(Integer rentalId, LocalDate startDate, LocalDate endDate) {
+            this.rentalId = rentalId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        public Integer getRentalId() {
+            return rentalId;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+    }
+}
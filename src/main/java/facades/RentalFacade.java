@@ -1,33 +1,40 @@
 package facades;
 
+import dtos.HouseDTO;
+import dtos.RentalDTO;
 import entities.Rental;
+import utils.ApiDateFormat;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class RentalFacade {
-    private static EntityManagerFactory emf;
-    private static RentalFacade instance;
+    private static final String SELECT_RENTAL_COLUMNS = "SELECT r.id, r.startDate, r.endDate, r.priceAnnual, r.deposit, " +
+            "r.contactPerson, h.id, h.address, h.city, h.numberOfRooms FROM Rental r JOIN r.house h";
 
-    private RentalFacade() {
+    private static final FacadeInstances<RentalFacade> INSTANCES = new FacadeInstances<>(RentalFacade::new);
+
+    private final EntityManagerFactory emf;
+
+    private RentalFacade(EntityManagerFactory emf) {
+        this.emf = emf;
     }
 
     public static RentalFacade getFacade(EntityManagerFactory _emf) {
-        if (instance == null) {
-            emf = _emf;
-            instance = new RentalFacade();
-        }
-        return instance;
+        return INSTANCES.get(_emf);
     }
 
     public Rental getRentalById(int id) {
-        EntityManager em = emf.createEntityManager();;
-
-        Rental rental = em.find(Rental.class, id);
-        em.close();
+        Rental rental = UnitOfWork.run(emf, em -> em.find(Rental.class, id));
 
         if (rental == null) {
             throw new EntityNotFoundException("Rental with id: "+id+" does not exist in database");
@@ -37,12 +44,154 @@ public class RentalFacade {
     }
 
     public List<Rental> getAllRentals() {
-        EntityManager em = emf.createEntityManager();
+        return UnitOfWork.read(emf, em -> em.createQuery("SELECT r FROM Rental r", Rental.class).getResultList());
+    }
+
+    //Reads a page of rentals together with their house and tenant ids in two queries, without creating any entities.
+    //Keyset pagination: rentals with an id greater than after, ordered by id so the primary key index is used
+    public List<RentalDTO> getRentalDTOs(Integer after, int limit, Integer houseId) {
+        StringBuilder jpql = new StringBuilder(SELECT_RENTAL_COLUMNS + " WHERE 1 = 1");
+        if (after != null) {
+            jpql.append(" AND r.id > :after");
+        }
+        if (houseId != null) {
+            jpql.append(" AND h.id = :houseId");
+        }
+        jpql.append(" ORDER BY r.id");
+
+        return UnitOfWork.read(emf, em -> {
+            TypedQuery<Object[]> rentalQuery = em.createQuery(jpql.toString(), Object[].class);
+            if (after != null) {
+                rentalQuery.setParameter("after", after);
+            }
+            if (houseId != null) {
+                rentalQuery.setParameter("houseId", houseId);
+            }
+            return buildRentalDTOs(em, rentalQuery.setMaxResults(limit).getResultList());
+        });
+    }
+
+    //Rentals running on the given date, the start and end date included.
+    //A range scan on idx_rentals_house_dates when a house is given, otherwise on idx_rentals_end_date
+    public List<RentalDTO> getRentalDTOsActiveOn(LocalDate date, Integer houseId) {
+        StringBuilder jpql = new StringBuilder(SELECT_RENTAL_COLUMNS + " WHERE r.endDate >= :date AND r.startDate <= :date");
+        if (houseId != null) {
+            jpql.append(" AND h.id = :houseId");
+        }
+        jpql.append(" ORDER BY r.endDate, r.id");
+
+        return UnitOfWork.read(emf, em -> {
+            TypedQuery<Object[]> rentalQuery = em.createQuery(jpql.toString(), Object[].class)
+                    .setParameter("date", date);
+            if (houseId != null) {
+                rentalQuery.setParameter("houseId", houseId);
+            }
+            return buildRentalDTOs(em, rentalQuery.getResultList());
+        });
+    }
+
+    //Rentals ending between from and days later, both included, as a range scan on idx_rentals_end_date
+    public List<RentalDTO> getRentalDTOsEndingWithin(LocalDate from, int days) {
+        return UnitOfWork.read(emf, em -> {
+            List<Object[]> rentalRows = em.createQuery(SELECT_RENTAL_COLUMNS +
+                    " WHERE r.endDate BETWEEN :from AND :to ORDER BY r.endDate, r.id", Object[].class)
+                    .setParameter("from", from)
+                    .setParameter("to", from.plusDays(days))
+                    .getResultList();
+            return buildRentalDTOs(em, rentalRows);
+        });
+    }
+
+    //Builds the rentals of rows selected with SELECT_RENTAL_COLUMNS, the tenant ids are read with one extra query
+    private List<RentalDTO> buildRentalDTOs(EntityManager em, List<Object[]> rentalRows) {
+        List<Integer> rentalIds = new ArrayList<>(rentalRows.size());
+        rentalRows.forEach(row -> rentalIds.add((Integer) row[0]));
+
+        Map<Integer, List<Integer>> tenantIdsByRentalId = new HashMap<>();
+        if (!rentalIds.isEmpty()) {
+            List<Object[]> tenantRows = em.createQuery("SELECT r.id, t.id FROM Rental r JOIN r.tenants t " +
+                    "WHERE r.id IN :rentalIds", Object[].class)
+                    .setParameter("rentalIds", rentalIds)
+                    .getResultList();
+            for (Object[] row : tenantRows) {
+                tenantIdsByRentalId.computeIfAbsent((Integer) row[0], rentalId -> new ArrayList<>()).add((Integer) row[1]);
+            }
+        }
+
+        List<RentalDTO> rentalDTOS = new ArrayList<>(rentalRows.size());
+        for (Object[] row : rentalRows) {
+            rentalDTOS.add(buildRentalDTO(row, tenantIdsByRentalId.getOrDefault((Integer) row[0], new ArrayList<>())));
+        }
+        return rentalDTOS;
+    }
+
+    /* Streams the rentals with an id greater than after to the consumer, one at a time in id order.
+     * The tenants are joined in, so a rental spans one row per tenant and is handed over once its last row is read */
+    public void streamRentalDTOs(Integer after, Integer houseId, Consumer<RentalDTO> consumer) {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        StringBuilder jpql = new StringBuilder("SELECT r.id, r.startDate, r.endDate, r.priceAnnual, r.deposit, " +
+                "r.contactPerson, h.id, h.address, h.city, h.numberOfRooms, t.id " +
+                "FROM Rental r JOIN r.house h LEFT JOIN r.tenants t WHERE 1 = 1");
+        if (after != null) {
+            jpql.append(" AND r.id > :after");
+        }
+        if (houseId != null) {
+            jpql.append(" AND h.id = :houseId");
+        }
+        jpql.append(" ORDER BY r.id");
+
+        try {
+            Query query = em.createQuery(jpql.toString());
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            if (houseId != null) {
+                query.setParameter("houseId", houseId);
+            }
+
+            List<Object[]> currentRental = new ArrayList<>();
+            ResultStreamer.forEachRow(query, row -> {
+                if (!currentRental.isEmpty() && !currentRental.get(0)[0].equals(row[0])) {
+                    consumer.accept(buildRentalDTO(currentRental));
+                    currentRental.clear();
+                }
+                currentRental.add(row);
+            });
+            if (!currentRental.isEmpty()) {
+                consumer.accept(buildRentalDTO(currentRental));
+            }
+        } finally {
+            UnitOfWork.release(em);
+        }
+    }
+
+    private RentalDTO buildRentalDTO(List<Object[]> rows) {
+        List<Integer> tenantIds = new ArrayList<>(rows.size());
+        for (Object[] tenantRow : rows) {
+            if (tenantRow[10] != null) {
+                tenantIds.add((Integer) tenantRow[10]);
+            }
+        }
+        return buildRentalDTO(rows.get(0), tenantIds);
+    }
 
-        TypedQuery<Rental> query = em.createQuery("SELECT r FROM Rental r", Rental.class);
-        List<Rental> rentals = query.getResultList();
-        em.close();
+    private RentalDTO buildRentalDTO(Object[] row, List<Integer> tenantIds) {
+        HouseDTO houseDTO = new HouseDTO.Builder()
+                .setId((Integer) row[6])
+                .setAddress((String) row[7])
+                .setCity((String) row[8])
+                .setNumberOfRooms((Integer) row[9])
+                .build();
 
-        return rentals;
+        return new RentalDTO.Builder()
+                .setId((Integer) row[0])
+                .setStartDate(ApiDateFormat.format((LocalDate) row[1]))
+                .setEndDate(ApiDateFormat.format((LocalDate) row[2]))
+                .setPriceAnnual((Integer) row[3])
+                .setDeposit((Integer) row[4])
+                .setContactPerson((String) row[5])
+                .setHouse(houseDTO)
+                .setTenantIds(tenantIds)
+                .build();
     }
-}
\ No newline at end of file
+}
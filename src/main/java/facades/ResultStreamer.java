@@ -0,0 +1,36 @@
+package facades;
+
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.config.ResultSetConcurrency;
+import org.eclipse.persistence.config.ResultSetType;
+import org.eclipse.persistence.queries.ScrollableCursor;
+
+import javax.persistence.Query;
+import java.util.function.Consumer;
+
+/* Runs a projection query through a forward only JDBC cursor and hands the rows over one at a time,
+ * so the full result is never held in memory. On MySQL this needs useCursorFetch=true on the connection url,
+ * otherwise the driver reads the whole result set before returning the first row. */
+class ResultStreamer {
+    static final int FETCH_SIZE = 500;
+
+    private ResultStreamer() {
+    }
+
+    static void forEachRow(Query query, Consumer<Object[]> rowConsumer) {
+        query.setHint(QueryHints.SCROLLABLE_CURSOR, HintValues.TRUE);
+        query.setHint(QueryHints.RESULT_SET_TYPE, ResultSetType.ForwardOnly);
+        query.setHint(QueryHints.RESULT_SET_CONCURRENCY, ResultSetConcurrency.ReadOnly);
+        query.setHint(QueryHints.JDBC_FETCH_SIZE, FETCH_SIZE);
+
+        ScrollableCursor cursor = (ScrollableCursor) query.getSingleResult();
+        try {
+            while (cursor.hasNext()) {
+                rowConsumer.accept((Object[]) cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -3,31 +3,132 @@ package facades;
 import entities.Role;
 
 import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+/* Roles are effectively static, so they are kept in a registry and getRoleByRole and the role names of users
+ * are looked up in memory. The registry is read with one query the first time it is used (or by refresh at
+ * startup), and read again when a role or role id is asked for that it does not know, so roles added to the
+ * database are found. Anything deleting or renaming roles has to call refresh or clear afterwards.
+ * There is one registry for the roles table however many EntityManagerFactories the facades use.
+ * Role names are interned, so the role lists of all users share the same few strings. */
 public class RoleFacade {
-    private static EntityManagerFactory emf;
-    private static RoleFacade instance;
+    private static final FacadeInstances<RoleFacade> INSTANCES = new FacadeInstances<>(RoleFacade::new);
+
+    //The plan of this is checked by QueryPlanTest
+    static final String ROLE_IDS_BY_USER_IDS = "SELECT u.id, r.id FROM User u JOIN u.roles r WHERE u.id IN :ids";
+
+    private static volatile Registry registry;
+
+    private final EntityManagerFactory emf;
+
+    private RoleFacade(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
 
     public static RoleFacade getFacade(EntityManagerFactory _emf) {
-        if (instance == null) {
-            emf = _emf;
-            instance = new RoleFacade();
-        }
-        return instance;
+        return INSTANCES.get(_emf);
     }
 
+    //The returned role is detached and shared, it should not be changed
     public Role getRoleByRole(String roleString) {
-        EntityManager em = emf.createEntityManager();
-        Role roleFound;
-        try {
-            TypedQuery<Role> query = em.createQuery("SELECT r FROM Role r WHERE r.role =:role", Role.class);
-            query.setParameter("role",roleString);
-            roleFound = query.getSingleResult();
-        } catch (NoResultException e){
+        Role roleFound = getRegistry().rolesByName.get(roleString);
+        if (roleFound == null) {
+            roleFound = refresh().rolesByName.get(roleString);
+        }
+        if (roleFound == null) {
             throw new EntityNotFoundException("No such Role exist");
+        }
+        return roleFound;
+    }
+
+    //Reads the user's roles with one query on the join table, the names come from the registry
+    public List<String> getRoleNamesByUserId(int userId) {
+        List<String> roleNames = getRoleNamesByUserIds(Collections.singletonList(userId)).get(userId);
+        return roleNames == null ? new ArrayList<>() : roleNames;
+    }
+
+    /* The role names of every user with one of the ids, read with IN queries of at most EntityLookup.IN_CHUNK_SIZE
+     * ids. Users without roles are left out */
+    public Map<Integer, List<String>> getRoleNamesByUserIds(Collection<Integer> userIds) {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        distinctIds.removeIf(Objects::isNull);
+        List<Object[]> rows = new ArrayList<>();
+
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        try {
+            for (int from = 0; from < distinctIds.size(); from += EntityLookup.IN_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + EntityLookup.IN_CHUNK_SIZE, distinctIds.size()));
+                rows.addAll(em.createQuery(ROLE_IDS_BY_USER_IDS, Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+            }
         } finally {
-            em.close();
+            UnitOfWork.release(em);
+        }
+
+        Map<Integer, List<String>> roleNames = new HashMap<>();
+        for (Object[] row : rows) {
+            roleNames.computeIfAbsent((Integer) row[0], userId -> new ArrayList<>()).add(getRoleName((Integer) row[1]));
+        }
+        return roleNames;
+    }
+
+    public String getRoleName(int roleId) {
+        String roleName = getRegistry().namesById.get(roleId);
+        if (roleName == null) {
+            roleName = refresh().namesById.get(roleId);
+        }
+        if (roleName == null) {
+            throw new EntityNotFoundException("No role with id: " + roleId + " exist");
+        }
+        return roleName;
+    }
+
+    //Reads all roles with one query, in an EntityManager of its own since the roles outlive any request
+    public Registry refresh() {
+        List<Role> roles = UnitOfWork.runIsolated(emf,
+                em -> em.createQuery("SELECT r FROM Role r", Role.class).getResultList());
+        Registry loaded = new Registry(roles);
+        registry = loaded;
+        return loaded;
+    }
+
+    //Forgets every role, they are read from the database again the next time one is used
+    public void clear() {
+        registry = null;
+    }
+
+    private Registry getRegistry() {
+        Registry current = registry;
+        return current != null ? current : refresh();
+    }
+
+    //An immutable snapshot of the roles table, replaced as a whole by refresh
+    public static class Registry {
+        private final Map<String, Role> rolesByName;
+        private final Map<Integer, String> namesById;
+
+        private Registry(List<Role> roles) {
+            Map<String, Role> byName = new HashMap<>();
+            Map<Integer, String> byId = new HashMap<>();
+            for (Role role : roles) {
+                role.setRole(role.getRole().intern());
+                byName.put(role.getRole(), role);
+                byId.put(role.getId(), role.getRole());
+            }
+            this.rolesByName = Collections.unmodifiableMap(byName);
+            this.namesById = Collections.unmodifiableMap(byId);
+        }
+
+        public int size() {
+            return rolesByName.size();
         }
-            return roleFound;
     }
-}
\ No newline at end of file
+}
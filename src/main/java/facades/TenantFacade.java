@@ -1,33 +1,36 @@
 package facades;
 
+import dtos.TenantDTO;
 import entities.Tenant;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class TenantFacade {
-    private static EntityManagerFactory emf;
-    private static TenantFacade instance;
+    private static final FacadeInstances<TenantFacade> INSTANCES = new FacadeInstances<>(TenantFacade::new);
 
-    private TenantFacade() {
+    private final EntityManagerFactory emf;
+
+    private TenantFacade(EntityManagerFactory emf) {
+        this.emf = emf;
     }
 
     public static TenantFacade getFacade(EntityManagerFactory _emf) {
-        if (instance == null) {
-            emf = _emf;
-            instance = new TenantFacade();
-        }
-        return instance;
+        return INSTANCES.get(_emf);
     }
 
     public Tenant getTenantById(int id) {
-        EntityManager em = emf.createEntityManager();
-
-        Tenant tenant = em.find(Tenant.class, id);
-        em.close();
+        Tenant tenant = UnitOfWork.run(emf, em -> em.find(Tenant.class, id));
 
         if (tenant == null) {
             throw new EntityNotFoundException("Tenant with id: "+id+" does not exist in database");
@@ -36,13 +39,70 @@ public class TenantFacade {
         return tenant;
     }
 
-    public List<Tenant> getAllTenants() {
-        EntityManager em = emf.createEntityManager();
+    //Reads the tenants with one IN query (one per EntityLookup.IN_CHUNK_SIZE ids), in the order of the ids
+    public List<Tenant> getTenantsByIds(Collection<Integer> ids) {
+        return UnitOfWork.run(emf, em -> getTenantsByIds(em, ids));
+    }
 
-        TypedQuery<Tenant> query = em.createQuery("SELECT t FROM Tenant t", Tenant.class);
-        List<Tenant> tenants = query.getResultList();
-        em.close();
+    //In the given persistence context, all the ids that do not exist are named in one EntityNotFoundException
+    List<Tenant> getTenantsByIds(EntityManager em, Collection<Integer> ids) {
+        Map<Integer, Tenant> found = EntityLookup.findByIds(em, Tenant.class, ids);
+
+        List<Tenant> tenants = new ArrayList<>(found.size());
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            Tenant tenant = found.get(id);
+            if (tenant == null) {
+                missingIds.add(id);
+            } else {
+                tenants.add(tenant);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("Tenants with ids: " + missingIds + " do not exist in database");
+        }
 
         return tenants;
     }
-}
\ No newline at end of file
+
+    public List<Tenant> getAllTenants() {
+        return UnitOfWork.read(emf, em -> em.createQuery("SELECT t FROM Tenant t", Tenant.class).getResultList());
+    }
+
+    //Keyset pagination: tenants with an id greater than after, ordered by id so the primary key index is used
+    public List<Tenant> getTenants(Integer after, int limit) {
+        String jpql = "SELECT t FROM Tenant t JOIN FETCH t.user" + (after != null ? " WHERE t.id > :after" : "")
+                + " ORDER BY t.id";
+
+        return UnitOfWork.read(emf, em -> {
+            TypedQuery<Tenant> query = em.createQuery(jpql, Tenant.class);
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            return query.setMaxResults(limit).getResultList();
+        });
+    }
+
+    //Streams the tenants with an id greater than after to the consumer, one at a time in id order
+    public void streamTenantDTOs(Integer after, Consumer<TenantDTO> consumer) {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        String jpql = "SELECT t.id, t.name, t.phone, t.job, u.id FROM Tenant t JOIN t.user u"
+                + (after != null ? " WHERE t.id > :after" : "") + " ORDER BY t.id";
+
+        try {
+            Query query = em.createQuery(jpql);
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            ResultStreamer.forEachRow(query, row -> consumer.accept(new TenantDTO.Builder()
+                    .setId((Integer) row[0])
+                    .setName((String) row[1])
+                    .setPhone((Integer) row[2])
+                    .setJob((String) row[3])
+                    .setUserId((Integer) row[4])
+                    .build()));
+        } finally {
+            UnitOfWork.release(em);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package facades;
+
+import org.eclipse.persistence.config.EntityManagerProperties;
+import org.eclipse.persistence.config.ExclusiveConnectionMode;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.sessions.server.ConnectionPolicy;
+import utils.PooledConnectionCustomizer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/* Lets all the facade calls of one HTTP request share an EntityManager, so they share one first-level cache and
+ * one connection, and entities read by one facade are still managed when another one writes them.
+ * rest.UnitOfWorkFilter begins a unit of work when a request comes in and ends it when the response goes out.
+ * Facades get their EntityManager with getEntityManager and give it back with release instead of closing it:
+ * inside a unit of work that is the EntityManager of the request, which stays open until end, outside of one
+ * (tests, streaming and the password hashing threads) it is a new EntityManager that release closes.
+ *
+ * Transactions are still begun and committed by the facades, so a write is committed where it was before.
+ * A transaction a facade left open because of an exception is rolled back by release.
+ *
+ * run and inTransaction do the getEntityManager, release and transaction handling around a piece of work, so a
+ * facade method can not forget the release on some path. runIsolated does the same in an EntityManager of its own,
+ * on a connection pool of its own.
+ * read is run for facade methods that only read, it reads from the read replica when ReadReplicas has one.
+ * Every EntityManager opened here is counted by EntityManagerTracker until it is closed. */
+public class UnitOfWork {
+    private static final ThreadLocal<Map<EntityManagerFactory, EntityManager>> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> READING_FROM_PRIMARY = new ThreadLocal<>();
+
+    //The request's EntityManager keeps its connection from the first query until end, instead of one per transaction
+    private static final Map<String, Object> REQUEST_PROPERTIES = Collections.singletonMap(
+            PersistenceUnitProperties.EXCLUSIVE_CONNECTION_MODE, ExclusiveConnectionMode.Always);
+
+    private UnitOfWork() {
+    }
+
+    //Anything left over by a unit of work that was never ended is closed first
+    public static void begin() {
+        end();
+        CURRENT.set(new HashMap<>());
+    }
+
+    public static void end() {
+        Map<EntityManagerFactory, EntityManager> entityManagers = CURRENT.get();
+        CURRENT.remove();
+        READING_FROM_PRIMARY.remove();
+        if (entityManagers == null) {
+            return;
+        }
+        for (EntityManager em : entityManagers.values()) {
+            close(em);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    //The rest of the unit of work reads from the primary, also in the facade methods that could use a read replica
+    public static void readFromPrimary() {
+        if (isActive()) {
+            READING_FROM_PRIMARY.set(Boolean.TRUE);
+        }
+    }
+
+    public static boolean isReadingFromPrimary() {
+        return READING_FROM_PRIMARY.get() != null;
+    }
+
+    //The EntityManager is only created when the request first uses the database
+    public static EntityManager getEntityManager(EntityManagerFactory emf) {
+        Map<EntityManagerFactory, EntityManager> entityManagers = CURRENT.get();
+        if (entityManagers == null) {
+            return EntityManagerTracker.opened(emf.createEntityManager());
+        }
+        return entityManagers.computeIfAbsent(emf,
+                factory -> EntityManagerTracker.opened(factory.createEntityManager(REQUEST_PROPERTIES)));
+    }
+
+    public static void release(EntityManager em) {
+        Map<EntityManagerFactory, EntityManager> entityManagers = CURRENT.get();
+        if (entityManagers == null || !entityManagers.containsValue(em)) {
+            close(em);
+            return;
+        }
+        if (em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+    }
+
+    public static <T, X extends Exception> T run(EntityManagerFactory emf, Work<T, X> work) throws X {
+        EntityManager em = getEntityManager(emf);
+        try {
+            return work.run(em);
+        } finally {
+            release(em);
+        }
+    }
+
+    public static <T, X extends Exception> T read(EntityManagerFactory emf, Work<T, X> work) throws X {
+        return run(ReadReplicas.route(emf), work);
+    }
+
+    //The transaction is committed when the work returns, and rolled back by release when the work or the commit throws
+    public static <T, X extends Exception> T inTransaction(EntityManagerFactory emf, Work<T, X> work) throws X {
+        return run(emf, em -> {
+            em.getTransaction().begin();
+            T result = work.run(em);
+            em.getTransaction().commit();
+            return result;
+        });
+    }
+
+    /* In a new EntityManager even inside a unit of work, for reads that must not go through the request's persistence
+     * context. It reads on the isolated pool, as the request may already hold a connection of the main pool */
+    public static <T, X extends Exception> T runIsolated(EntityManagerFactory emf, Work<T, X> work) throws X {
+        EntityManager em = EntityManagerTracker.opened(createIsolatedEntityManager(emf));
+        try {
+            return work.run(em);
+        } finally {
+            close(em);
+        }
+    }
+
+    //Factories created without utils.PooledConnectionCustomizer have no isolated pool and read on their default one
+    private static EntityManager createIsolatedEntityManager(EntityManagerFactory emf) {
+        if (JpaHelper.getServerSession(emf).getConnectionPool(PooledConnectionCustomizer.ISOLATED_POOL) == null) {
+            return emf.createEntityManager();
+        }
+        //Exclusive, otherwise the reads would still go to the read pool of the session
+        ConnectionPolicy policy = new ConnectionPolicy(PooledConnectionCustomizer.ISOLATED_POOL);
+        policy.setExclusiveMode(ConnectionPolicy.ExclusiveMode.Always);
+        return emf.createEntityManager(Collections.singletonMap(EntityManagerProperties.CONNECTION_POLICY, policy));
+    }
+
+    private static void close(EntityManager em) {
+        try {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        } finally {
+            EntityManagerTracker.closed(em);
+        }
+    }
+
+    public interface Work<T, X extends Exception> {
+        T run(EntityManager em) throws X;
+    }
+}
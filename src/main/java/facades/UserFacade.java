@@ -1,26 +1,47 @@
 package facades;
 
-import entities.Entity;
+import dtos.RentalDTO;
+import dtos.TenantDTO;
+import dtos.UserDTO;
 
 import javax.persistence.*;
 
+import entities.House;
 import entities.Rental;
 import entities.Tenant;
 import entities.User;
 import errorhandling.IllegalAgeException;
 import errorhandling.InvalidDateException;
 import errorhandling.InvalidUsernameException;
+import errorhandling.OverlappingRentalException;
+import errorhandling.RentalBatchException;
 import errorhandling.UniqueException;
+import org.mindrot.jbcrypt.BCrypt;
 import security.errorhandling.AuthenticationException;
-
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import utils.ApiDateFormat;
+import utils.TableVersions;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
 public class UserFacade {
-    private static EntityManagerFactory emf;
-    private static UserFacade instance;
+    private static final FacadeInstances<UserFacade> INSTANCES = new FacadeInstances<>(UserFacade::new);
+
+    private final EntityManagerFactory emf;
 
     public static final int MINIMUM_AGE = 13;
     public static final int MAXIMUM_AGE = 120;
@@ -28,41 +49,49 @@ public class UserFacade {
     public static final int MINIMUM_USERNAME_LENGTH = 3;
     public static final int MAXIMUM_USERNAME_LENGTH = 20;
 
-    private UserFacade() {
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
+    //The plans of these are checked by QueryPlanTest
+    static final String RENTALS_BY_USER_ID = "SELECT r.id, r.startDate, r.endDate, r.priceAnnual, r.deposit, " +
+            "r.contactPerson, r.house.id FROM Rental r JOIN r.tenants t WHERE t.user.id = :user_id";
+    static final String TENANTS_BY_HOUSE_ID = "SELECT t.id, t.name, t.phone, t.job, t.user.id FROM Tenant t " +
+            "JOIN t.rentals r WHERE r.house.id = :id";
+
+    private UserFacade(EntityManagerFactory emf) {
+        this.emf = emf;
     }
 
     public static UserFacade getFacade(EntityManagerFactory _emf) {
-        if (instance == null) {
-            emf = _emf;
-            instance = new UserFacade();
-        }
-        return instance;
+        return INSTANCES.get(_emf);
     }
 
-    public User getVerifiedUser(String username, String password) throws AuthenticationException {
-        EntityManager em = emf.createEntityManager();
-        User user;
-        try {
-            TypedQuery<User> query = em.createQuery("SELECT u FROM User u WHERE u.username =:username ",User.class);
-            query.setParameter("username",username);
-            try {
-                user = query.getSingleResult();
-            } catch (NoResultException e) {
-                throw new AuthenticationException("Invalid user name or password");
-            }
+    /* Reads only the columns the token needs, the password hash to check against and the role names,
+     * with one query and without creating a User entity */
+    public UserDTO getVerifiedUser(String username, String password) throws AuthenticationException {
+        return getVerifiedUser(username, password, BCrypt::checkpw);
+    }
 
-            if (!user.verifyPassword(password)) {
-                throw new AuthenticationException("Invalid user name or password");
-            }
+    //The check gets the password and the stored hash, LoginResource checks on the PasswordHashingExecutor
+    public UserDTO getVerifiedUser(String username, String password, BiPredicate<String, String> passwordCheck)
+            throws AuthenticationException {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        List<Object[]> rows;
+        try {
+            rows = em.createQuery("SELECT u.id, u.username, u.age, r.role, u.password FROM User u " +
+                    "LEFT JOIN u.roles r WHERE u.username =:username", Object[].class)
+                    .setParameter("username", username)
+                    .getResultList();
         } finally {
-            em.close();
+            UnitOfWork.release(em);
         }
-        return user;
+
+        if (rows.isEmpty() || !passwordCheck.test(password, (String) rows.get(0)[4])) {
+            throw new AuthenticationException("Invalid user name or password");
+        }
+        return buildUserDTO(rows);
     }
 
     public User createUser(User user) throws IllegalAgeException, InvalidUsernameException, UniqueException {
-        EntityManager em = emf.createEntityManager();
-
         if(user.getAge() < MINIMUM_AGE || user.getAge() > MAXIMUM_AGE) {
             throw new IllegalAgeException(user.getAge());
         }
@@ -76,35 +105,47 @@ public class UserFacade {
                     + MAXIMUM_USERNAME_LENGTH+ " characters");
         }
 
-        TypedQuery<Long> query = em.createQuery("SELECT count(u) FROM User u WHERE u.username =:username", Long.class);
-        query.setParameter("username", user.getUsername());
-        if (query.getSingleResult() > 0) {
-            throw new UniqueException("Username already in use");
-        }
-
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        /* The unique constraint on users.username is checked by the insert itself, which is one round trip
+         * instead of a count first, and two sign-ups with the same username at the same time can not both pass */
         try {
             em.getTransaction().begin();
             em.persist(user);
             em.getTransaction().commit();
+        } catch (PersistenceException exception) {
+            if (isUniqueViolation(exception)) {
+                throw new UniqueException("Username already in use");
+            }
+            throw exception;
         } finally {
-            em.close();
+            UnitOfWork.release(em);
         }
         return user;
     }
 
-    public void updateUser(User user) throws UniqueException, InvalidUsernameException, IllegalAgeException {
-        EntityManager em = emf.createEntityManager();
+    /* MySQL reports a duplicate key with error code 1062, other databases with the standard SQL state 23505.
+     * With batch writing the violation may be chained to a BatchUpdateException as its next exception */
+    private static boolean isUniqueViolation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                for (SQLException sqlException = (SQLException) cause; sqlException != null;
+                     sqlException = sqlException.getNextException()) {
+                    if (sqlException.getErrorCode() == MYSQL_DUPLICATE_KEY || "23505".equals(sqlException.getSQLState())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
 
+    public void updateUser(User user) throws UniqueException, InvalidUsernameException, IllegalAgeException {
         validateUser(user);
 
         try {
-            em.getTransaction().begin();
-            em.merge(user);
-            em.getTransaction().commit();
+            UnitOfWork.inTransaction(emf, em -> em.merge(user));
         } catch (RollbackException exception){
             throw new UniqueException(exception.getMessage());
-        } finally {
-            em.close();
         }
     }
 
@@ -126,10 +167,7 @@ public class UserFacade {
     }
 
     public User getUserById(int id) {
-        EntityManager em = emf.createEntityManager();
-
-        User user = em.find(User.class,id);
-        em.close();
+        User user = UnitOfWork.run(emf, em -> em.find(User.class, id));
 
         if (user == null) {
             throw new EntityNotFoundException("User with id: "+id+" does not exist in database");
@@ -139,141 +177,507 @@ public class UserFacade {
     }
 
     public List<User> getAllUsers() {
-        EntityManager em = emf.createEntityManager();
+        return UnitOfWork.read(emf, em -> em.createQuery("SELECT u FROM User u", User.class).getResultList());
+    }
 
-        TypedQuery<User> query = em.createQuery("SELECT u FROM User u",User.class);
-        List<User> allUsers = query.getResultList();
-        em.close();
+    //Like getUserById, but reads only the columns of the DTO and the role names, with one query
+    public UserDTO getUserDTOById(int id) {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        List<Object[]> rows;
+        try {
+            rows = em.createQuery("SELECT u.id, u.username, u.age, r.role FROM User u LEFT JOIN u.roles r " +
+                    "WHERE u.id = :id", Object[].class)
+                    .setParameter("id", id)
+                    .getResultList();
+        } finally {
+            UnitOfWork.release(em);
+        }
 
-        return allUsers;
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("User with id: "+id+" does not exist in database");
+        }
+        return buildUserDTO(rows);
     }
 
-    public List<Rental> getRentalsByUserId(int id) {
-        EntityManager em = emf.createEntityManager();
+    /* Keyset pagination: users with an id greater than after, ordered by id so the primary key index is used.
+     * The roles of the page are read with one more query, a join would make the limit count roles */
+    public List<UserDTO> getUserDTOs(Integer after, int limit) {
+        String jpql = "SELECT u.id, u.username, u.age FROM User u" + (after != null ? " WHERE u.id > :after" : "")
+                + " ORDER BY u.id";
+        List<Object[]> rows = UnitOfWork.read(emf, em -> {
+            TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            return query.setMaxResults(limit).getResultList();
+        });
+
+        List<Integer> userIds = new ArrayList<>(rows.size());
+        rows.forEach(row -> userIds.add((Integer) row[0]));
+        Map<Integer, List<String>> roleNames = RoleFacade.getFacade(emf).getRoleNamesByUserIds(userIds);
+
+        List<UserDTO> userDTOs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            userDTOs.add(new UserDTO.Builder()
+                    .setId((Integer) row[0])
+                    .setUsername((String) row[1])
+                    .setAge((Integer) row[2])
+                    .setRoles(roleNames.getOrDefault((Integer) row[0], new ArrayList<>()))
+                    .build());
+        }
+        return userDTOs;
+    }
 
-        TypedQuery<Rental> query = em.createQuery("SELECT r FROM Rental r " +
-                "JOIN r.tenants t " +
-                "JOIN t.user u " +
-                "WHERE u.id=:user_id", Rental.class);
-        query.setParameter("user_id", id);
-        List<Rental> rentals = query.getResultList();
-        em.close();
+    /* Streams the users with an id greater than after to the consumer, one at a time in id order.
+     * The roles are joined in, so a user spans one row per role and is handed over once its last row is read */
+    public void streamUserDTOs(Integer after, Consumer<UserDTO> consumer) {
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        String jpql = "SELECT u.id, u.username, u.age, r.role FROM User u LEFT JOIN u.roles r"
+                + (after != null ? " WHERE u.id > :after" : "") + " ORDER BY u.id";
 
-        if (rentals.size() == 0) {
-            throw new EntityNotFoundException("User with id: "+id+" does not exist in database");
+        try {
+            Query query = em.createQuery(jpql);
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+
+            List<Object[]> currentUser = new ArrayList<>();
+            ResultStreamer.forEachRow(query, row -> {
+                if (!currentUser.isEmpty() && !currentUser.get(0)[0].equals(row[0])) {
+                    consumer.accept(buildUserDTO(currentUser));
+                    currentUser.clear();
+                }
+                currentUser.add(row);
+            });
+            if (!currentUser.isEmpty()) {
+                consumer.accept(buildUserDTO(currentUser));
+            }
+        } finally {
+            UnitOfWork.release(em);
         }
+    }
 
-        return rentals;
+    private UserDTO buildUserDTO(List<Object[]> rows) {
+        Object[] row = rows.get(0);
+        List<String> roles = new ArrayList<>(rows.size());
+        for (Object[] roleRow : rows) {
+            if (roleRow[3] != null) {
+                roles.add((String) roleRow[3]);
+            }
+        }
+
+        return new UserDTO.Builder()
+                .setId((Integer) row[0])
+                .setUsername((String) row[1])
+                .setAge((Integer) row[2])
+                .setRoles(roles)
+                .build();
     }
 
-    public List<Tenant> getTenantsByHouseId(int id) {
-        EntityManager em = emf.createEntityManager();
+    public List<RentalDTO> getRentalDTOsByUserId(int id) {
+        List<Object[]> rows = UnitOfWork.read(emf, em -> em.createQuery(RENTALS_BY_USER_ID, Object[].class)
+                .setParameter("user_id", id)
+                .getResultList());
 
-        TypedQuery<Tenant> query = em.createQuery("SELECT t FROM Tenant t " +
-                "JOIN t.rentals r " +
-                "JOIN  r.house h " +
-                "WHERE h.id=:id", Tenant.class);
-        query.setParameter("id", id);
-        List<Tenant> tenants = query.getResultList();
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("User with id: "+id+" does not exist in database");
+        }
 
-        if (tenants.size() == 0) {
+        List<RentalDTO> rentalDTOs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            rentalDTOs.add(new RentalDTO.Builder()
+                    .setId((Integer) row[0])
+                    .setStartDate(ApiDateFormat.format((LocalDate) row[1]))
+                    .setEndDate(ApiDateFormat.format((LocalDate) row[2]))
+                    .setPriceAnnual((Integer) row[3])
+                    .setDeposit((Integer) row[4])
+                    .setContactPerson((String) row[5])
+                    .setHouseId((Integer) row[6])
+                    .build());
+        }
+        return rentalDTOs;
+    }
+
+    //A tenant is listed once for every rental of the house it is a tenant in
+    public List<TenantDTO> getTenantDTOsByHouseId(int id) {
+        List<Object[]> rows = UnitOfWork.read(emf, em -> em.createQuery(TENANTS_BY_HOUSE_ID, Object[].class)
+                .setParameter("id", id)
+                .getResultList());
+
+        if (rows.isEmpty()) {
             throw new EntityNotFoundException("House with id: "+id+" does not exist in database");
         }
 
-        return tenants;
+        List<TenantDTO> tenantDTOs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            tenantDTOs.add(new TenantDTO.Builder()
+                    .setId((Integer) row[0])
+                    .setName((String) row[1])
+                    .setPhone((Integer) row[2])
+                    .setJob((String) row[3])
+                    .setUserId((Integer) row[4])
+                    .build());
+        }
+        return tenantDTOs;
     }
 
-    public Rental createRental(Rental rental) throws InvalidDateException {
-        EntityManager em = emf.createEntityManager();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/mm/yyyy");
-        dateFormat.setLenient(false);
+    /* Reads the house and the tenants in the persistence context the rental is persisted in, the tenants with one
+     * IN query. All the tenant ids that do not exist are named in one EntityNotFoundException */
+    public Rental createRental(RentalDTO rentalDTO) throws InvalidDateException, OverlappingRentalException {
+        if (rentalDTO == null) {
+            throw new IllegalArgumentException("The rental is missing");
+        }
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        Rental rental;
 
         try {
-            Date startDate = dateFormat.parse(rental.getStartDate());
-            Date endDate = dateFormat.parse(rental.getEndDate());
-
-            if (startDate.after(endDate) || startDate.equals(endDate)) {
-                throw new InvalidDateException("Start date is equals to or after End date");
+            Map<Integer, House> houses = EntityLookup.findByIds(em, House.class,
+                    Collections.singletonList(rentalDTO.getHouseId()));
+            List<Integer> tenantIds = rentalDTO.getTenantIds() == null ? new ArrayList<>() : rentalDTO.getTenantIds();
+            Map<Integer, Tenant> tenants = new HashMap<>();
+            for (Tenant tenant : TenantFacade.getFacade(emf).getTenantsByIds(em, tenantIds)) {
+                tenants.put(tenant.getId(), tenant);
             }
 
-            em.getTransaction().begin();
-            em.persist(rental);
-            em.getTransaction().commit();
+            rental = buildRental(rentalDTO, houses, tenants);
+            persistRental(em, rental);
+        } finally {
+            UnitOfWork.release(em);
+        }
+
+        evictFromCache(rental);
+        return rental;
+    }
 
-        } catch (ParseException exception) {
-            throw new InvalidDateException("The date format is not valid");
+    public Rental createRental(Rental rental) throws InvalidDateException, OverlappingRentalException {
+        validateRentalPeriod(rental);
+        EntityManager em = UnitOfWork.getEntityManager(emf);
 
+        try {
+            persistRental(em, rental);
         } finally {
-            em.close();
+            UnitOfWork.release(em);
         }
 
+        evictFromCache(rental);
         return rental;
     }
 
-    public void updateRental(Rental rental) throws InvalidDateException {
-        EntityManager em = emf.createEntityManager();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/mm/yyyy");
-        dateFormat.setLenient(false);
+    //The house is locked from the overlap check until the rental is committed, see RentalCalendar
+    private void persistRental(EntityManager em, Rental rental) throws OverlappingRentalException {
+        RentalCalendar.HouseCalendar calendar = RentalCalendar.getCalendar(emf).getHouseCalendar(rental.getHouse().getId());
+        synchronized (calendar) {
+            checkAvailability(calendar, rental);
+            em.getTransaction().begin();
+            em.persist(rental);
+            em.getTransaction().commit();
+            calendar.add(toPeriod(rental));
+        }
+    }
 
+    public void updateRental(Rental rental) throws InvalidDateException, OverlappingRentalException {
         if (rental == null) {
             throw new EntityNotFoundException("The entity is null");
         }
+        validateRentalPeriod(rental);
+        RentalCalendar rentalCalendar = RentalCalendar.getCalendar(emf);
+        RentalCalendar.HouseCalendar calendar = rentalCalendar.getHouseCalendar(rental.getHouse().getId());
+        EntityManager em = UnitOfWork.getEntityManager(emf);
 
         try {
-            Date startDate = dateFormat.parse(rental.getStartDate());
-            Date endDate = dateFormat.parse(rental.getEndDate());
-
-            if (startDate.after(endDate) || startDate.equals(endDate)) {
-                throw new InvalidDateException("Start date is equals to or after End date");
+            /* The rental's current house and tenants also need to be evicted, in case they are replaced.
+             * They are read from the database before the transaction begins, as inside a unit of work the rental
+             * may be the managed instance the caller has already changed */
+            Integer previousHouseId = null;
+            List<Integer> previousTenantIds = new ArrayList<>();
+            if (rental.getId() != null) {
+                List<Integer> houseIds = em.createQuery("SELECT r.house.id FROM Rental r WHERE r.id = :id", Integer.class)
+                        .setParameter("id", rental.getId())
+                        .getResultList();
+                previousHouseId = houseIds.isEmpty() ? null : houseIds.get(0);
+                previousTenantIds = em.createQuery("SELECT t.id FROM Rental r JOIN r.tenants t WHERE r.id = :id", Integer.class)
+                        .setParameter("id", rental.getId())
+                        .getResultList();
+            }
+            synchronized (calendar) {
+                checkAvailability(calendar, rental);
+                em.getTransaction().begin();
+                em.merge(rental);
+                em.getTransaction().commit();
+                calendar.add(toPeriod(rental));
+            }
+            if (previousHouseId != null && !previousHouseId.equals(rental.getHouse().getId())) {
+                rentalCalendar.getHouseCalendar(previousHouseId).remove(rental.getId());
             }
 
-            em.getTransaction().begin();
-            em.merge(rental);
-            em.getTransaction().commit();
+            evictFromCache(previousHouseId, previousTenantIds);
+            evictFromCache(rental);
+
+        } finally {
+            UnitOfWork.release(em);
+        }
+    }
+
+    /* Creates all the rentals in one transaction, or none of them if any of them can not be created.
+     * The houses and tenants of the whole batch are read with one IN query each, in the persistence context the
+     * rentals are persisted in. The calendars of the houses are locked, in house id order so two batches can not
+     * wait for each other, while the batch is checked for overlaps and committed */
+    public List<Rental> createRentals(List<RentalDTO> rentalDTOs) throws RentalBatchException {
+        Map<Integer, Exception> failures = new HashMap<>();
+        List<Rental> rentals = new ArrayList<>(rentalDTOs.size());
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+
+        try {
+            Set<Integer> houseIds = new HashSet<>();
+            Set<Integer> tenantIds = new HashSet<>();
+            for (RentalDTO rentalDTO : rentalDTOs) {
+                if (rentalDTO != null) {
+                    houseIds.add(rentalDTO.getHouseId());
+                    if (rentalDTO.getTenantIds() != null) {
+                        tenantIds.addAll(rentalDTO.getTenantIds());
+                    }
+                }
+            }
+            Map<Integer, House> houses = EntityLookup.findByIds(em, House.class, houseIds);
+            Map<Integer, Tenant> tenants = EntityLookup.findByIds(em, Tenant.class, tenantIds);
+
+            for (int index = 0; index < rentalDTOs.size(); index++) {
+                try {
+                    rentals.add(buildRental(rentalDTOs.get(index), houses, tenants));
+                } catch (InvalidDateException | EntityNotFoundException | IllegalArgumentException exception) {
+                    failures.put(index, exception);
+                    rentals.add(null);
+                }
+            }
 
-        } catch (ParseException exception) {
-            throw new InvalidDateException("The date format is not valid");
+            RentalCalendar rentalCalendar = RentalCalendar.getCalendar(emf);
+            List<RentalCalendar.HouseCalendar> calendars = new ArrayList<>();
+            for (Integer houseId : new TreeSet<>(houses.keySet())) {
+                calendars.add(rentalCalendar.getHouseCalendar(houseId));
+            }
 
+            withCalendarsLocked(calendars, 0, () -> {
+                checkBatchAvailability(rentals, failures);
+                if (!failures.isEmpty()) {
+                    throw new RentalBatchException(failures);
+                }
+                em.getTransaction().begin();
+                rentals.forEach(em::persist);
+                em.getTransaction().commit();
+                for (Rental rental : rentals) {
+                    rentalCalendar.getHouseCalendar(rental.getHouse().getId()).add(toPeriod(rental));
+                }
+            });
         } finally {
-            em.close();
+            UnitOfWork.release(em);
         }
+
+        rentals.forEach(this::evictFromCache);
+        return rentals;
     }
 
-    public void deleteUser(Integer id) {
-        EntityManager em = emf.createEntityManager();
+    private Rental buildRental(RentalDTO rentalDTO, Map<Integer, House> houses, Map<Integer, Tenant> tenants)
+            throws InvalidDateException {
+        if (rentalDTO == null) {
+            throw new IllegalArgumentException("The rental is missing");
+        }
+        if (rentalDTO.getPriceAnnual() == null || rentalDTO.getDeposit() == null || rentalDTO.getContactPerson() == null) {
+            throw new IllegalArgumentException("price_annual, deposit and contact_person are required");
+        }
 
-        User user = em.find(User.class,id);
+        House house = houses.get(rentalDTO.getHouseId());
+        if (house == null) {
+            throw new EntityNotFoundException("House with id: " + rentalDTO.getHouseId() + " does not exist in database");
+        }
+        List<Tenant> rentalTenants = new ArrayList<>();
+        List<Integer> missingTenantIds = new ArrayList<>();
+        if (rentalDTO.getTenantIds() != null) {
+            for (Integer tenantId : rentalDTO.getTenantIds()) {
+                Tenant tenant = tenants.get(tenantId);
+                if (tenant == null) {
+                    missingTenantIds.add(tenantId);
+                } else {
+                    rentalTenants.add(tenant);
+                }
+            }
+        }
+        if (!missingTenantIds.isEmpty()) {
+            throw new EntityNotFoundException("Tenants with ids: " + missingTenantIds + " do not exist in database");
+        }
 
-        if (user == null) {
-            throw new EntityNotFoundException("Entity doesn't exist");
+        Rental rental = new Rental(
+                ApiDateFormat.parse(rentalDTO.getStartDate()),
+                ApiDateFormat.parse(rentalDTO.getEndDate()),
+                rentalDTO.getPriceAnnual(),
+                rentalDTO.getDeposit(),
+                rentalDTO.getContactPerson(),
+                house,
+                rentalTenants);
+        validateRentalPeriod(rental);
+        return rental;
+    }
+
+    //Checks the rentals against the calendars and against the rentals before them in the batch
+    private void checkBatchAvailability(List<Rental> rentals, Map<Integer, Exception> failures) {
+        RentalCalendar rentalCalendar = RentalCalendar.getCalendar(emf);
+        Map<Integer, List<Rental>> checkedRentalsByHouseId = new HashMap<>();
+
+        for (int index = 0; index < rentals.size(); index++) {
+            Rental rental = rentals.get(index);
+            if (rental == null) {
+                continue;
+            }
+            List<Rental> checkedRentals = checkedRentalsByHouseId.computeIfAbsent(rental.getHouse().getId(), houseId -> new ArrayList<>());
+            try {
+                checkAvailability(rentalCalendar.getHouseCalendar(rental.getHouse().getId()), rental);
+                for (Rental checkedRental : checkedRentals) {
+                    if (!checkedRental.getEndDate().isBefore(rental.getStartDate())
+                            && !rental.getEndDate().isBefore(checkedRental.getStartDate())) {
+                        throw overlapping(toPeriod(checkedRental));
+                    }
+                }
+                checkedRentals.add(rental);
+            } catch (OverlappingRentalException exception) {
+                failures.put(index, exception);
+            }
         }
-        try {
-            deleteEntity(user,em);
+    }
+
+    private void withCalendarsLocked(List<RentalCalendar.HouseCalendar> calendars, int index, BatchWrite write)
+            throws RentalBatchException {
+        if (index == calendars.size()) {
+            write.run();
+            return;
+        }
+        synchronized (calendars.get(index)) {
+            withCalendarsLocked(calendars, index + 1, write);
+        }
+    }
+
+    private interface BatchWrite {
+        void run() throws RentalBatchException;
+    }
 
-        } catch (NoResultException exception) {
-            throw new EntityNotFoundException("User with id: "+id+" does not exist");
+    private void checkAvailability(RentalCalendar.HouseCalendar calendar, Rental rental) throws OverlappingRentalException {
+        RentalCalendar.Period overlap = calendar.findOverlap(rental.getStartDate(), rental.getEndDate(), rental.getId());
+        if (overlap != null) {
+            throw overlapping(overlap);
+        }
+    }
+
+    private OverlappingRentalException overlapping(RentalCalendar.Period overlap) {
+        return new OverlappingRentalException("The house is already rented out from "
+                + ApiDateFormat.format(overlap.getStartDate()) + " to " + ApiDateFormat.format(overlap.getEndDate()));
+    }
+
+    private RentalCalendar.Period toPeriod(Rental rental) {
+        return new RentalCalendar.Period(rental.getId(), rental.getStartDate(), rental.getEndDate());
+    }
+
+    private void validateRentalPeriod(Rental rental) throws InvalidDateException {
+        if (rental.getStartDate() == null || rental.getEndDate() == null) {
+            throw new InvalidDateException("Start date and End date are required");
+        }
+        if (!rental.getStartDate().isBefore(rental.getEndDate())) {
+            throw new InvalidDateException("Start date is equals to or after End date");
         }
     }
 
+    /* Deletes the user and its users_roles rows with one statement each, without reading the user first.
+     * The users_roles rows are deleted with SQL as the join table has no entity, which leaves the shared cache alone.
+     * The JPQL delete invalidates the cached user, and nothing has been deleted when the user does not exist */
+    public void deleteUser(Integer id) {
+        UnitOfWork.inTransaction(emf, em -> {
+            em.createNativeQuery("DELETE FROM users_roles WHERE user_id = ?1")
+                    .setParameter(1, id)
+                    .executeUpdate();
+            if (em.createQuery("DELETE FROM User u WHERE u.id = :id").setParameter("id", id).executeUpdate() == 0) {
+                throw new EntityNotFoundException("User with id: " + id + " does not exist");
+            }
+            return null;
+        });
+        //Bulk deletes do not raise the events TableVersions counts
+        TableVersions.changed(User.class);
+    }
+
     public void deleteRental(int id) {
-        EntityManager em = emf.createEntityManager();
+        if (deleteRentals(Collections.singletonList(id)).isEmpty()) {
+            throw new EntityNotFoundException("Rental with id: " + id + " does not exist in database");
+        }
+    }
 
-        Rental rental = em.find(Rental.class, id);
+    /* Deletes the rentals of the ids that exist, in one transaction, and returns the ids of the deleted rentals.
+     * Per chunk of ids the house and tenant ids the calendars and the shared cache need are read with one
+     * projection, then the tenants_rentals rows and the rentals are deleted with one statement each */
+    public List<Integer> deleteRentals(Collection<Integer> ids) {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        Map<Integer, Integer> houseIdsByRentalId = new LinkedHashMap<>();
+        Set<Integer> tenantIds = new HashSet<>();
+
+        UnitOfWork.inTransaction(emf, em -> {
+            for (int from = 0; from < distinctIds.size(); from += EntityLookup.IN_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(from,
+                        Math.min(from + EntityLookup.IN_CHUNK_SIZE, distinctIds.size()));
+                List<Object[]> rows = em.createQuery("SELECT r.id, r.house.id, t.id FROM Rental r " +
+                        "LEFT JOIN r.tenants t WHERE r.id IN :ids", Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                List<Integer> found = new ArrayList<>();
+                for (Object[] row : rows) {
+                    if (houseIdsByRentalId.put((Integer) row[0], (Integer) row[1]) == null) {
+                        found.add((Integer) row[0]);
+                    }
+                    if (row[2] != null) {
+                        tenantIds.add((Integer) row[2]);
+                    }
+                }
+
+                StringBuilder sql = new StringBuilder("DELETE FROM tenants_rentals WHERE rental_id IN (");
+                for (int index = 1; index <= found.size(); index++) {
+                    sql.append(index == 1 ? "?" : ", ?").append(index);
+                }
+                Query deleteTenantsRentals = em.createNativeQuery(sql.append(')').toString());
+                for (int index = 1; index <= found.size(); index++) {
+                    deleteTenantsRentals.setParameter(index, found.get(index - 1));
+                }
+                deleteTenantsRentals.executeUpdate();
+                em.createQuery("DELETE FROM Rental r WHERE r.id IN :ids").setParameter("ids", found).executeUpdate();
+            }
+            return null;
+        });
+        if (houseIdsByRentalId.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TableVersions.changed(Rental.class);
 
-        if (rental == null) {
-            throw new EntityNotFoundException("Rental with id: "+id+" does not exist in database");
+        RentalCalendar rentalCalendar = RentalCalendar.getCalendar(emf);
+        houseIdsByRentalId.forEach((rentalId, houseId) -> rentalCalendar.getHouseCalendar(houseId).remove(rentalId));
+        for (Integer houseId : new HashSet<>(houseIdsByRentalId.values())) {
+            evictFromCache(houseId, Collections.emptyList());
         }
+        evictFromCache(null, new ArrayList<>(tenantIds));
+        return new ArrayList<>(houseIdsByRentalId.keySet());
+    }
 
-        deleteEntity(rental, em);
+    //Houses and tenants are kept in the shared cache together with their rentals, which are now out of date
+    private void evictFromCache(Rental rental) {
+        House house = rental.getHouse();
+        evictFromCache(house == null ? null : house.getId(), rental.getTenantIds());
     }
 
-    private void deleteEntity(Entity entity, EntityManager em) {
-        try {
-            em.getTransaction().begin();
-            em.remove(entity);
-            em.getTransaction().commit();
-        } finally {
-            em.close();
+    private void evictFromCache(Integer houseId, List<Integer> tenantIds) {
+        Cache cache = emf.getCache();
+        if (houseId != null) {
+            cache.evict(House.class, houseId);
+        }
+        for (Integer tenantId : tenantIds) {
+            if (tenantId != null) {
+                cache.evict(Tenant.class, tenantId);
+            }
         }
     }
-}
\ No newline at end of file
+}
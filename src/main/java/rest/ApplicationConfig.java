@@ -12,13 +12,22 @@ public class ApplicationConfig extends Application {
         addRestResourceClasses(resources);
         return resources;
     }
+
+    @Override
+    public Set<Object> getSingletons() {
+        Set<Object> singletons = new java.util.HashSet<>();
+        singletons.add(new FacadeBinder());
+        return singletons;
+    }
     private void addRestResourceClasses(Set<Class<?>> resources) {
         resources.add(cors.CorsFilter.class);
         resources.add(errorhandling.GenericExceptionMapper.class);
+        resources.add(rest.GsonProvider.class);
         resources.add(org.glassfish.jersey.server.wadl.internal.WadlResource.class);
-        resources.add(security.JWTAuthenticationFilter.class);
+        resources.add(security.SecurityFeature.class);
+        resources.add(rest.StartupListener.class);
+        resources.add(rest.UnitOfWorkFeature.class);
         resources.add(rest.LoginResource.class);
-        resources.add(security.RolesAllowedFilter.class);
         resources.add(security.errorhandling.AuthenticationExceptionMapper.class);
         resources.add(security.errorhandling.NotAuthorizedExceptionMapper.class);
         resources.add(rest.UserResource.class);
@@ -26,5 +35,6 @@ public class ApplicationConfig extends Application {
         resources.add(rest.HouseResource.class);
         resources.add(rest.TenantResource.class);
         resources.add(rest.UtilityResource.class);
+        resources.add(rest.MetricsResource.class);
     }
 }
@@ -0,0 +1,23 @@
+package rest;
+
+import facades.HouseFacade;
+import facades.RentalFacade;
+import facades.RoleFacade;
+import facades.TenantFacade;
+import facades.UserFacade;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import security.PasswordHashingExecutor;
+
+/* Makes the facades and the PasswordHashingExecutor injectable into the resources with @Inject. They are created here with Resource.EMF once,
+ * while the application starts, instead of by whichever requests happen to come first */
+public class FacadeBinder extends AbstractBinder {
+    @Override
+    protected void configure() {
+        bind(UserFacade.getFacade(Resource.EMF)).to(UserFacade.class);
+        bind(RoleFacade.getFacade(Resource.EMF)).to(RoleFacade.class);
+        bind(HouseFacade.getFacade(Resource.EMF)).to(HouseFacade.class);
+        bind(RentalFacade.getFacade(Resource.EMF)).to(RentalFacade.class);
+        bind(TenantFacade.getFacade(Resource.EMF)).to(TenantFacade.class);
+        bind(PasswordHashingExecutor.getDefault()).to(PasswordHashingExecutor.class);
+    }
+}
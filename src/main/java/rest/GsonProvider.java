@@ -0,0 +1,108 @@
+package rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import utils.GsonRegistry;
+
+import javax.annotation.Priority;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/* Reads JSON request bodies straight from the InputStream into DTOs and writes the returned entities straight to the
+ * OutputStream with the Gson instances from GsonRegistry, so resources never build the JSON as a String.
+ * Strings and streams are left to Jersey's own providers.
+ * The priority puts it ahead of the JSON-B provider that Jersey registers by itself. */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class GsonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    @Context
+    UriInfo uriInfo;
+
+    //Responses are compact unless the client asks for ?pretty=true
+    static Gson getGson(UriInfo uriInfo) {
+        boolean pretty = uriInfo != null && "true".equals(uriInfo.getQueryParameters().getFirst("pretty"));
+        return GsonRegistry.get(pretty);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isJson(mediaType) && isEntity(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        //Not closed, the entity stream belongs to the container
+        Reader reader = new InputStreamReader(entityStream, getCharset(mediaType));
+        try {
+            return GsonRegistry.COMPACT.fromJson(reader, genericType);
+        } catch (JsonParseException | NumberFormatException | IllegalStateException e) {
+            //Adapters that read a value of the wrong type throw the latter two instead of a JsonParseException
+            throw new BadRequestException("Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isJson(mediaType) && isEntity(type);
+    }
+
+    @Override
+    public long getSize(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        Gson gson = getGson(uriInfo);
+        //Not closed, the entity stream belongs to the container
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(entityStream, getCharset(mediaType)));
+        gson.toJson(entity, genericType, writer);
+        writer.flush();
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return mediaType == null || MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType);
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return type != String.class
+                && type != byte[].class
+                && type != char[].class
+                && type != File.class
+                && !InputStream.class.isAssignableFrom(type)
+                && !Reader.class.isAssignableFrom(type)
+                && !StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    private static Charset getCharset(MediaType mediaType) {
+        String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+    }
+}
@@ -1,41 +1,88 @@
 package rest;
 
+import dtos.AvailabilityDTO;
 import dtos.HouseDTO;
 import entities.House;
+import errorhandling.InvalidDateException;
 import facades.HouseFacade;
 import org.glassfish.grizzly.http.util.HttpStatus;
+import utils.ApiDateFormat;
 
 import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
+import javax.persistence.EntityNotFoundException;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Path("houses")
 public class HouseResource extends Resource {
-    private final HouseFacade facade = HouseFacade.getFacade(EMF);
+    @Inject
+    private HouseFacade facade;
 
     @GET
     @RolesAllowed("admin")
     @Produces({MediaType.APPLICATION_JSON})
-    public Response getAllHouses() {
-        List<House> houses = facade.getAllHouses();
-        List<HouseDTO> houseDTOS = new ArrayList<>();
-
-        for (House house : houses) {
-            houseDTOS.add(new HouseDTO.Builder()
-                    .setId(house.getId())
-                    .setAddress(house.getAddress())
-                    .setCity(house.getCity())
-                    .setNumberOfRooms(house.getNumberOfRooms())
-                    .build());
+    public Response getAllHouses(@QueryParam("after") Integer after,
+                                 @QueryParam("limit") Integer limit,
+                                 @QueryParam("city") String city,
+                                 @QueryParam("stream") boolean stream) {
+        return buildConditionalResponse("houses", () -> {
+            if (stream) {
+                return buildStreamResponse(HouseDTO.class, consumer -> facade.streamHouseDTOs(after, city, consumer));
+            }
+            int pageSize = getPageSize(limit);
+            List<House> houses = facade.getHouses(after, pageSize + 1, city);
+            List<HouseDTO> houseDTOS = new ArrayList<>();
+
+            for (House house : houses) {
+                houseDTOS.add(new HouseDTO.Builder()
+                        .setId(house.getId())
+                        .setAddress(house.getAddress())
+                        .setCity(house.getCity())
+                        .setNumberOfRooms(house.getNumberOfRooms())
+                        .build());
+            }
+
+            return buildPageResponse(houseDTOS, pageSize, HouseDTO::getId);
+        }, House.class);
+    }
+
+    @GET
+    @RolesAllowed({"user","admin"})
+    @Path("{id}/availability")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response getAvailability(@PathParam("id") int id,
+                                    @QueryParam("from") String from,
+                                    @QueryParam("to") String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = ApiDateFormat.parse(from);
+            toDate = ApiDateFormat.parse(to);
+        } catch (InvalidDateException exception) {
+            throw new BadRequestException("from and to should be dates formatted as " + ApiDateFormat.PATTERN);
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new BadRequestException("from should be before or equal to to");
         }
 
-        String houseDTOsToJson = GSON.toJson(houseDTOS);
+        AvailabilityDTO availabilityDTO;
+        try {
+            availabilityDTO = facade.getAvailability(id, fromDate, toDate);
+        } catch (EntityNotFoundException exception) {
+            throw new NotFoundException("No such house with id " + id + " exist");
+        }
 
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(houseDTOsToJson).build();
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(availabilityDTO).build();
     }
-}
\ No newline at end of file
+}
@@ -8,17 +8,22 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import dtos.LoginDTO;
-import entities.User;
+import dtos.UserDTO;
 import facades.UserFacade;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.glassfish.jersey.server.ManagedAsync;
+import security.PasswordHashingExecutor;
 import security.SharedSecret;
 import security.errorhandling.AuthenticationException;
 import errorhandling.GenericExceptionMapper;
@@ -26,31 +31,35 @@ import errorhandling.GenericExceptionMapper;
 @Path("login")
 public class LoginResource extends Resource {
     public static final int TOKEN_EXPIRE_TIME = 1000 * 60 * 30;
-    public static final UserFacade USER_FACADE = UserFacade.getFacade(EMF);
+
+    @Inject
+    private UserFacade userFacade;
+    @Inject
+    private PasswordHashingExecutor passwordHashing;
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response login(String loginJson) throws AuthenticationException {
-        LoginDTO loginDTO = GSON.fromJson(loginJson, LoginDTO.class);
-
-        try {
-            User user = USER_FACADE.getVerifiedUser(loginDTO.getUsername(), loginDTO.getPassword());
-            String token = createToken(user.getId(), user.getUsername(), user.getRolesAsStringList());
+    @ManagedAsync
+    public void login(LoginDTO loginDTO, @Suspended AsyncResponse asyncResponse) {
+        //BCrypt is slow on purpose, so the password is checked on the password hashing threads
+        resumeWithPasswordHashing(asyncResponse, () -> {
+            try {
+                UserDTO user = userFacade.getVerifiedUser(loginDTO.getUsername(), loginDTO.getPassword(),
+                        passwordHashing::check);
+                String token = createToken(user.getId(), user.getUsername(), user.getRoles());
 
-            loginDTO = new LoginDTO.Builder()
-                    .setUsername(user.getUsername())
-                    .setToken(token)
-                    .build();
+                LoginDTO tokenDTO = new LoginDTO.Builder()
+                        .setUsername(user.getUsername())
+                        .setToken(token)
+                        .build();
 
-            return Response.ok(GSON.toJson(loginDTO)).build();
-        } catch (JOSEException | AuthenticationException ex) {
-            if (ex instanceof AuthenticationException) {
-                throw (AuthenticationException) ex;
+                return Response.ok(tokenDTO).build();
+            } catch (JOSEException ex) {
+                Logger.getLogger(GenericExceptionMapper.class.getName()).log(Level.SEVERE, null, ex);
             }
-            Logger.getLogger(GenericExceptionMapper.class.getName()).log(Level.SEVERE, null, ex);
-        }
-        throw new AuthenticationException("Invalid username or password! Please try again");
+            throw new AuthenticationException("Invalid username or password! Please try again");
+        });
     }
 
     private String createToken(int userId, String userName, List<String> roles) throws JOSEException {
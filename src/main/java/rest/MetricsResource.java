@@ -0,0 +1,111 @@
+package rest;
+
+import dtos.CacheMetricsDTO;
+import dtos.EntityManagerMetricsDTO;
+import dtos.PoolMetricsDTO;
+import dtos.TokenMetricsDTO;
+import facades.EntityManagerTracker;
+import org.glassfish.grizzly.http.util.HttpStatus;
+import security.TokenCache;
+import utils.CacheStatistics;
+import utils.LatencyHistogram;
+import utils.PoolMetrics;
+
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+
+@Path("metrics")
+public class MetricsResource extends Resource {
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("pool")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response getPoolMetrics() {
+        List<PoolMetricsDTO> poolMetricsDTOS = new ArrayList<>();
+
+        for (PoolMetrics metrics : PoolMetrics.getAll()) {
+            poolMetricsDTOS.add(new PoolMetricsDTO.Builder()
+                    .setPool(metrics.getPoolName())
+                    .setActive(metrics.getActiveConnections())
+                    .setIdle(metrics.getIdleConnections())
+                    .setWaiting(metrics.getThreadsAwaitingConnection())
+                    .setTotal(metrics.getTotalConnections())
+                    .setMaxSize(metrics.getMaxConnections())
+                    .setTimeouts(metrics.getTimeouts())
+                    .setAcquireCount(metrics.getAcquireTime().getCount())
+                    .setAcquireTimeSumMs(metrics.getAcquireTime().getSumMillis())
+                    .setAcquireTimeHistogram(metrics.getAcquireTime().snapshot())
+                    .build());
+        }
+
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(poolMetricsDTOS).build();
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("cache")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response getCacheMetrics() {
+        List<CacheMetricsDTO> cacheMetricsDTOS = new ArrayList<>();
+
+        for (CacheStatistics statistics : CacheStatistics.getAll()) {
+            for (Class<?> entityClass : statistics.getEntityClasses()) {
+                cacheMetricsDTOS.add(new CacheMetricsDTO.Builder()
+                        .setUnit(statistics.getUnitName())
+                        .setEntity(entityClass.getSimpleName())
+                        .setHits(statistics.getHits(entityClass))
+                        .setMisses(statistics.getMisses(entityClass))
+                        .build());
+            }
+        }
+
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(cacheMetricsDTOS).build();
+    }
+
+    @GET
+    @RolesAllowed("admin")
+    @Path("tokens")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response getTokenMetrics() {
+        TokenCache tokenCache = TokenCache.getInstance();
+        LatencyHistogram verificationTime = tokenCache.getVerificationTime();
+
+        TokenMetricsDTO tokenMetricsDTO = new TokenMetricsDTO.Builder()
+                .setCacheSize(tokenCache.getSize())
+                .setCacheHits(tokenCache.getHits())
+                .setCacheMisses(tokenCache.getMisses())
+                .setVerifyCount(verificationTime.getCount())
+                .setVerifyTimeSumMs(verificationTime.getSumMillis())
+                .setVerifyTimeHistogram(verificationTime.snapshot())
+                .build();
+
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(tokenMetricsDTO).build();
+    }
+
+    //Leaked counts the EntityManagers found garbage collected without being closed, so a leak shows up after a GC
+    @GET
+    @RolesAllowed("admin")
+    @Path("entity-managers")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response getEntityManagerMetrics() {
+        EntityManagerTracker.check();
+
+        EntityManagerMetricsDTO entityManagerMetricsDTO = new EntityManagerMetricsDTO.Builder()
+                .setOpened(EntityManagerTracker.getOpened())
+                .setClosed(EntityManagerTracker.getClosed())
+                .setOpen(EntityManagerTracker.getOpen())
+                .setLeaked(EntityManagerTracker.getLeaked())
+                .setOverdue(EntityManagerTracker.getOverdue())
+                .setThresholdMs(EntityManagerTracker.getThresholdMs())
+                .build();
+
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(entityManagerMetricsDTO).build();
+    }
+}
@@ -1,52 +1,42 @@
 package rest;
 
-import dtos.HouseDTO;
 import dtos.RentalDTO;
+import entities.House;
 import entities.Rental;
+import entities.Tenant;
 import facades.RentalFacade;
-import org.glassfish.grizzly.http.util.HttpStatus;
 
 import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.util.ArrayList;
 import java.util.List;
 
 @Path("rentals")
 public class RentalResource extends Resource {
-    private final RentalFacade facade = RentalFacade.getFacade(EMF);
+    @Inject
+    private RentalFacade facade;
 
     @GET
     @RolesAllowed("admin")
     @Produces({MediaType.APPLICATION_JSON})
-    public Response getAllRentals() {
-        List<Rental> rentals = facade.getAllRentals();
-        List<RentalDTO> rentalDTOS = new ArrayList<>();
+    public Response getAllRentals(@QueryParam("after") Integer after,
+                                  @QueryParam("limit") Integer limit,
+                                  @QueryParam("houseId") Integer houseId,
+                                  @QueryParam("stream") boolean stream) {
+        //A rental is listed with its house and the ids of its tenants
+        return buildConditionalResponse("rentals", () -> {
+            if (stream) {
+                return buildStreamResponse(RentalDTO.class, consumer -> facade.streamRentalDTOs(after, houseId, consumer));
+            }
+            int pageSize = getPageSize(limit);
+            List<RentalDTO> rentalDTOS = facade.getRentalDTOs(after, pageSize + 1, houseId);
 
-        for (Rental rental : rentals) {
-            HouseDTO houseDTO = new HouseDTO.Builder()
-                    .setId(rental.getHouse().getId())
-                    .setAddress(rental.getHouse().getAddress())
-                    .setCity(rental.getHouse().getCity())
-                    .setNumberOfRooms(rental.getHouse().getNumberOfRooms())
-                    .build();
-
-            rentalDTOS.add(new RentalDTO.Builder()
-                    .setId(rental.getId())
-                    .setStartDate(rental.getStartDate())
-                    .setEndDate(rental.getEndDate())
-                    .setPriceAnnual(rental.getPriceAnnual())
-                    .setDeposit(rental.getDeposit())
-                    .setContactPerson(rental.getContactPerson())
-                    .setHouse(houseDTO)
-                    .setTenantIds(rental.getTenantIds())
-                    .build());
-        }
-
-        String rentalDTOsToJson = GSON.toJson(rentalDTOS);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(rentalDTOsToJson).build();
+            return buildPageResponse(rentalDTOS, pageSize, RentalDTO::getId);
+        }, Rental.class, House.class, Tenant.class);
     }
 }
@@ -1,16 +1,147 @@
 package rest;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import errorhandling.GenericExceptionMapper;
+import org.glassfish.grizzly.http.util.HttpStatus;
 import utils.EMF_Creator;
+import utils.TableVersions;
 import javax.persistence.EntityManagerFactory;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class Resource {
-    protected static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     protected static final EntityManagerFactory EMF = EMF_Creator.createEntityManagerFactory();
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int RETRY_AFTER_SECONDS = 1;
+
     @Context
     SecurityContext securityContext;
+
+    @Context
+    UriInfo uriInfo;
+
+    @Context
+    Request request;
+
+    //The page size asked for with ?limit=, capped at MAX_PAGE_SIZE
+    protected int getPageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit should be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /* Expects one element more than the page size, which is only used to tell if there is a next page.
+     * The next page is linked in the Link header as ?after=<id of the last element>&limit=<page size> */
+    protected <T> Response buildPageResponse(List<T> elements, int pageSize, Function<T, Integer> getId) {
+        boolean hasNextPage = elements.size() > pageSize;
+        List<T> page = hasNextPage ? elements.subList(0, pageSize) : elements;
+
+        Response.ResponseBuilder response = Response.status(HttpStatus.OK_200.getStatusCode())
+                .entity(page);
+        if (hasNextPage) {
+            URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", getId.apply(page.get(page.size() - 1)))
+                    .replaceQueryParam("limit", pageSize)
+                    .build();
+            response.link(next, "next");
+        }
+        return response.build();
+    }
+
+    /* Conditional GET for responses read from the tables of the given entity classes. The ETag and Last-Modified
+     * are built from their TableVersions before anything is read, so when the If-None-Match (or If-Modified-Since)
+     * of the request still matches, it is answered with 304 without going to the database or serializing.
+     * Last-Modified has a resolution of seconds, a change later in the same second would get the same date. So it is
+     * only sent, and If-Modified-Since only answered, once that second is over, until then the ETag alone is used.
+     * The scope tells apart responses of the same URL that differ by something else, like the user of /users/me */
+    protected Response buildConditionalResponse(String scope, Supplier<Response> read, Class<?>... entityClasses) {
+        StringBuilder tag = new StringBuilder(scope).append('-').append(TableVersions.EPOCH);
+        for (Class<?> entityClass : entityClasses) {
+            tag.append('-').append(TableVersions.getVersion(entityClass));
+        }
+        EntityTag entityTag = new EntityTag(tag.toString());
+        Date lastModified = TableVersions.getLastModified(entityClasses);
+        //Clients have to ask every time, the answer is only cheap when it has not changed
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        boolean lastModifiedFinal = System.currentTimeMillis() >= lastModified.getTime() + 1000;
+
+        Response.ResponseBuilder notModified = lastModifiedFinal
+                ? request.evaluatePreconditions(lastModified, entityTag)
+                : request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+        Response response = read.get();
+        if (response.getStatus() != HttpStatus.OK_200.getStatusCode()) {
+            return response;
+        }
+        Response.ResponseBuilder conditional = Response.fromResponse(response)
+                .tag(entityTag)
+                .cacheControl(cacheControl);
+        if (lastModifiedFinal) {
+            conditional.lastModified(lastModified);
+        }
+        return conditional.build();
+    }
+
+    /* Writes the elements to the response as a JSON array while the source reads them from the database,
+     * used for ?stream=true where the whole list is returned without paging */
+    protected <T> Response buildStreamResponse(Class<T> elementType, Consumer<Consumer<T>> source) {
+        Gson gson = GsonProvider.getGson(uriInfo);
+        StreamingOutput output = outputStream -> {
+            JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.beginArray();
+            source.accept(element -> gson.toJson(element, elementType, writer));
+            writer.endArray();
+            writer.flush();
+        };
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(output).build();
+    }
+
+    /* Resumes the suspended request with the response of a task that waits for the PasswordHashingExecutor, or with
+     * the exception it throws. The resource methods are @ManagedAsync, so the task and its database work run on
+     * Jersey's async threads and only BCrypt itself on the hashing threads. When the executor is full the request
+     * is answered with 503 and a Retry-After header right away. */
+    protected void resumeWithPasswordHashing(AsyncResponse asyncResponse, Callable<Response> task) {
+        try {
+            asyncResponse.resume(task.call());
+        } catch (RejectedExecutionException e) {
+            Response serviceUnavailable = GenericExceptionMapper.makeErrRes("Too many passwords are being checked, try again later",
+                    HttpStatus.SERVICE_UNAVAILABLE_503.getStatusCode());
+            asyncResponse.resume(Response.fromResponse(serviceUnavailable)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build());
+        } catch (Exception e) {
+            asyncResponse.resume(e);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package rest;
+
+import facades.RentalCalendar;
+import facades.RoleFacade;
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
+
+import javax.persistence.PersistenceException;
+import javax.ws.rs.ext.Provider;
+
+/* Loads what is kept in memory before the first request, so the first bookings do not pay for it.
+ * If the database can not be read yet, the calendars are loaded house by house and the roles on their first use instead. */
+@Provider
+public class StartupListener implements ContainerLifecycleListener {
+    @Override
+    public void onStartup(Container container) {
+        try {
+            RentalCalendar.getCalendar(Resource.EMF).warmUp();
+            RoleFacade.getFacade(Resource.EMF).refresh();
+        } catch (PersistenceException exception) {
+            System.out.println("Could not load the rental calendars and roles at startup: " + exception.getMessage());
+        }
+    }
+
+    @Override
+    public void onReload(Container container) {
+    }
+
+    @Override
+    public void onShutdown(Container container) {
+    }
+}
@@ -3,12 +3,13 @@ package rest;
 import dtos.TenantDTO;
 import entities.Tenant;
 import facades.TenantFacade;
-import org.glassfish.grizzly.http.util.HttpStatus;
 
 import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
@@ -16,13 +17,20 @@ import java.util.List;
 
 @Path("tenants")
 public class TenantResource extends Resource {
-    private final TenantFacade facade = TenantFacade.getFacade(EMF);
+    @Inject
+    private TenantFacade facade;
 
     @GET
     @RolesAllowed("admin")
     @Produces({MediaType.APPLICATION_JSON})
-    public Response getAllTenants() {
-        List<Tenant> tenants = facade.getAllTenants();
+    public Response getAllTenants(@QueryParam("after") Integer after,
+                                  @QueryParam("limit") Integer limit,
+                                  @QueryParam("stream") boolean stream) {
+        if (stream) {
+            return buildStreamResponse(TenantDTO.class, consumer -> facade.streamTenantDTOs(after, consumer));
+        }
+        int pageSize = getPageSize(limit);
+        List<Tenant> tenants = facade.getTenants(after, pageSize + 1);
         List<TenantDTO> tenantDTOS = new ArrayList<>();
 
         for (Tenant tenant : tenants) {
@@ -35,7 +43,6 @@ public class TenantResource extends Resource {
                     .build());
         }
 
-        String tenantDTOsToJson = GSON.toJson(tenantDTOS);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(tenantDTOsToJson).build();
+        return buildPageResponse(tenantDTOS, pageSize, TenantDTO::getId);
     }
 }
\ No newline at end of file
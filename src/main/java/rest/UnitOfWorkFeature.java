@@ -0,0 +1,31 @@
+package rest;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+import java.lang.annotation.Annotation;
+
+/* Gives every resource method a unit of work, except the ones resumed from another thread with @Suspended:
+ * the unit of work belongs to the request thread, and they run on Jersey's managed async threads */
+@Provider
+public class UnitOfWorkFeature implements DynamicFeature {
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        if (!isAsync(resourceInfo)) {
+            context.register(new UnitOfWorkFilter());
+        }
+    }
+
+    private static boolean isAsync(ResourceInfo resourceInfo) {
+        for (Annotation[] parameterAnnotations : resourceInfo.getResourceMethod().getParameterAnnotations()) {
+            for (Annotation annotation : parameterAnnotations) {
+                if (annotation instanceof Suspended) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
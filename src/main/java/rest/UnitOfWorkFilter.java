@@ -0,0 +1,24 @@
+package rest;
+
+import facades.UnitOfWork;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+//Registered by UnitOfWorkFeature, the response filter runs before the entity is written, so entities must be DTOs
+@Priority(Priorities.USER)
+public class UnitOfWorkFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        UnitOfWork.begin();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        UnitOfWork.end();
+    }
+}
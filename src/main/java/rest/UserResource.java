@@ -3,48 +3,65 @@ package rest;
 import dtos.*;
 import entities.House;
 import entities.Rental;
-import entities.Tenant;
+import entities.Role;
 import entities.User;
 import errorhandling.*;
 import facades.*;
 import org.glassfish.grizzly.http.util.HttpStatus;
+import org.glassfish.jersey.server.ManagedAsync;
+import security.PasswordHashingExecutor;
+import utils.ApiDateFormat;
 
 import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
 import javax.persistence.EntityNotFoundException;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Path("users")
 public class UserResource extends Resource {
-    private final UserFacade facade = UserFacade.getFacade(EMF);
-    private final RoleFacade roleFacade = RoleFacade.getFacade(EMF);
-    private final HouseFacade houseFacade = HouseFacade.getFacade(EMF);
-    private final TenantFacade tenantFacade = TenantFacade.getFacade(EMF);
-    private final RentalFacade rentalFacade = RentalFacade.getFacade(EMF);
+    @Inject
+    private UserFacade facade;
+    @Inject
+    private RoleFacade roleFacade;
+    @Inject
+    private HouseFacade houseFacade;
+    @Inject
+    private RentalFacade rentalFacade;
+    @Inject
+    private PasswordHashingExecutor passwordHashing;
+
+    public static final int MAX_BATCH_SIZE = 1000;
 
     @POST
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response createUser(String userFromJson) {
-        UserDTO userDTO = GSON.fromJson(userFromJson, UserDTO.class);
-        User user;
-
-        try {
-            user = new User(userDTO.getUsername(), userDTO.getPassword(), userDTO.getAge());
-            user.addRole(roleFacade.getRoleByRole("user"));
-            user = facade.createUser(user);
-        } catch (UniqueException e) {
-             throw new WebApplicationException(e.getMessage(),HttpStatus.CONFLICT_409.getStatusCode());
-        }
-        catch (InvalidUsernameException | InvalidPasswordException | IllegalAgeException e) {
-            throw new BadRequestException(e.getMessage());
-        }
-        userDTO = buildStandardUserDTO(user);
+    @ManagedAsync
+    public void createUser(UserDTO userDTO, @Suspended AsyncResponse asyncResponse) {
+        //The password is hashed with BCrypt when the user is constructed, so it is hashed on the password hashing threads
+        resumeWithPasswordHashing(asyncResponse, () -> {
+            User user;
+
+            try {
+                user = new User(userDTO.getUsername(), userDTO.getPassword(), userDTO.getAge(), passwordHashing::hash);
+                user.addRole(roleFacade.getRoleByRole("user"));
+                user = facade.createUser(user);
+            } catch (UniqueException e) {
+                 throw new WebApplicationException(e.getMessage(),HttpStatus.CONFLICT_409.getStatusCode());
+            }
+            catch (InvalidUsernameException | InvalidPasswordException | IllegalAgeException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+            UserDTO createdUserDTO = buildStandardUserDTO(user, user.getRolesAsStringList());
 
-        String userToJson = GSON.toJson(userDTO);
-        return Response.status(HttpStatus.CREATED_201.getStatusCode()).entity(userToJson).build();
+            return Response.status(HttpStatus.CREATED_201.getStatusCode()).entity(createdUserDTO).build();
+        });
     }
 
     @GET
@@ -52,38 +69,34 @@ public class UserResource extends Resource {
     @Path("me")
     @Produces({MediaType.APPLICATION_JSON})
     public Response getMe() {
-        User user;
         int id = Integer.parseInt(securityContext.getUserPrincipal().getName());
 
-        try {
-            user = facade.getUserById(id);
-        } catch (EntityNotFoundException e) {
-            throw new NotFoundException("No such user with id " + id + " exist");
-        }
-        UserDTO userDTO = buildStandardUserDTO(user);
+        return buildConditionalResponse("me-" + id, () -> {
+            UserDTO userDTO;
 
-        String userToJson = GSON.toJson(userDTO);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(userToJson).build();
+            try {
+                userDTO = facade.getUserDTOById(id);
+            } catch (EntityNotFoundException e) {
+                throw new NotFoundException("No such user with id " + id + " exist");
+            }
+
+            return Response.status(HttpStatus.OK_200.getStatusCode()).entity(userDTO).build();
+        }, User.class, Role.class);
     }
 
     @GET
     @RolesAllowed("admin")
     @Produces ({MediaType.APPLICATION_JSON})
-    public Response getAllUsers() {
-        List<User> allUsers = facade.getAllUsers();
-        List<UserDTO> allUserDTOs = new ArrayList<>();
-
-        for (User user : allUsers) {
-            allUserDTOs.add(new UserDTO.Builder()
-                    .setId(user.getId())
-                    .setUsername(user.getUsername())
-                    .setAge(user.getAge())
-                    .setRoles(user.getRolesAsStringList())
-                    .build());
+    public Response getAllUsers(@QueryParam("after") Integer after,
+                                @QueryParam("limit") Integer limit,
+                                @QueryParam("stream") boolean stream) {
+        if (stream) {
+            return buildStreamResponse(UserDTO.class, consumer -> facade.streamUserDTOs(after, consumer));
         }
+        int pageSize = getPageSize(limit);
+        List<UserDTO> allUserDTOs = facade.getUserDTOs(after, pageSize + 1);
 
-        String userDtosToJson = GSON.toJson(allUserDTOs);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(userDtosToJson).build();
+        return buildPageResponse(allUserDTOs, pageSize, UserDTO::getId);
     }
 
     @PUT
@@ -91,8 +104,7 @@ public class UserResource extends Resource {
     @Path("{id}")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response updateUser(String userFromJson, @PathParam("id") int id) {
-        UserDTO userDTO = GSON.fromJson(userFromJson, UserDTO.class);
+    public Response updateUser(UserDTO userDTO, @PathParam("id") int id) {
         User user;
 
         try {
@@ -124,8 +136,8 @@ public class UserResource extends Resource {
                     HttpStatus.CONFLICT_409.getStatusCode());
         }
 
-        UserDTO updatedUserDTO = buildStandardUserDTO(user);
-        return Response.ok().entity(GSON.toJson(updatedUserDTO)).build();
+        UserDTO updatedUserDTO = buildStandardUserDTO(user, roleFacade.getRoleNamesByUserId(user.getId()));
+        return Response.ok().entity(updatedUserDTO).build();
     }
 
     @DELETE
@@ -135,7 +147,7 @@ public class UserResource extends Resource {
         try {
             facade.deleteUser(id);
         } catch (EntityNotFoundException exception) {
-
+            throw new NotFoundException(exception.getMessage());
         }
         return Response.noContent().build();
     }
@@ -146,29 +158,15 @@ public class UserResource extends Resource {
     @Produces({MediaType.APPLICATION_JSON})
     public Response getRentalsByUser() {
         int userId = Integer.parseInt(securityContext.getUserPrincipal().getName());
-        List<Rental> rentals;
+        List<RentalDTO> rentalDTOS;
 
         try {
-            rentals = facade.getRentalsByUserId(userId);
+            rentalDTOS = facade.getRentalDTOsByUserId(userId);
         } catch (EntityNotFoundException exception) {
             throw new NotFoundException("No rentals could be found from current user");
         }
 
-        List<RentalDTO> rentalDTOS = new ArrayList<>();
-        for (Rental rental : rentals) {
-            rentalDTOS.add(new RentalDTO.Builder()
-                    .setId(rental.getId())
-                    .setStartDate(rental.getStartDate())
-                    .setEndDate(rental.getEndDate())
-                    .setPriceAnnual(rental.getPriceAnnual())
-                    .setDeposit(rental.getDeposit())
-                    .setContactPerson(rental.getContactPerson())
-                    .setHouseId(rental.getHouse().getId())
-                    .build());
-        }
-
-        String rentalDTOsToJson = GSON.toJson(rentalDTOS);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(rentalDTOsToJson).build();
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(rentalDTOS).build();
     }
 
     @GET
@@ -176,27 +174,15 @@ public class UserResource extends Resource {
     @Path("tenants/{houseId}")
     @Produces({MediaType.APPLICATION_JSON})
     public Response getTenantsByHouseId(@PathParam("houseId") int houseId) {
-        List<Tenant> tenants;
+        List<TenantDTO> tenantDTOS;
 
         try {
-            tenants = facade.getTenantsByHouseId(houseId);
+            tenantDTOS = facade.getTenantDTOsByHouseId(houseId);
         } catch (EntityNotFoundException exception) {
             return Response.status(HttpStatus.NO_CONTENT_204.getStatusCode()).build();
         }
 
-        List<TenantDTO> tenantDTOS = new ArrayList<>();
-        for (Tenant tenant : tenants) {
-            tenantDTOS.add(new TenantDTO.Builder()
-                    .setId(tenant.getId())
-                    .setName(tenant.getName())
-                    .setPhone(tenant.getPhone())
-                    .setJob(tenant.getJob())
-                    .setUserId(tenant.getUser().getId())
-                    .build());
-        }
-
-        String tenantDTOsToJson = GSON.toJson(tenantDTOS);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(tenantDTOsToJson).build();
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(tenantDTOS).build();
     }
 
     @POST
@@ -204,38 +190,66 @@ public class UserResource extends Resource {
     @Path("rentals")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response postRental(String rentalFromJson) {
-        RentalDTO rentalDTO = GSON.fromJson(rentalFromJson, RentalDTO.class);
-        House house;
-        List<Tenant> tenants = new ArrayList<>();
+    public Response postRental(RentalDTO rentalDTO) {
         Rental rental;
 
         try {
-            house = houseFacade.getHouseById(rentalDTO.getHouseId());
-            for (Integer tenantId : rentalDTO.getTenantIds()) {
-                tenants.add(tenantFacade.getTenantById(tenantId));
-            }
-            rental = new Rental(
-                    rentalDTO.getStartDate(),
-                    rentalDTO.getEndDate(),
-                    rentalDTO.getPriceAnnual(),
-                    rentalDTO.getDeposit(),
-                    rentalDTO.getContactPerson(),
-                    house,
-                    tenants);
-
-            rental = facade.createRental(rental);
+            rental = facade.createRental(rentalDTO);
 
         } catch (EntityNotFoundException entityNotFoundException) {
-            throw new NotFoundException("The house is no where to be found");
+            throw new NotFoundException(entityNotFoundException.getMessage());
+
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new BadRequestException(illegalArgumentException.getMessage());
 
         } catch (InvalidDateException invalidDateException) {
             return Response.status(HttpStatus.NO_CONTENT_204.getStatusCode()).build();
+
+        } catch (OverlappingRentalException overlappingRentalException) {
+            throw new WebApplicationException(overlappingRentalException.getMessage(),
+                    HttpStatus.CONFLICT_409.getStatusCode());
         }
         rentalDTO = buildStandardRentalDTO(rental);
 
-        String rentalToJson = GSON.toJson(rentalDTO);
-        return Response.status(HttpStatus.CREATED_201.getStatusCode()).entity(rentalToJson).build();
+        return Response.status(HttpStatus.CREATED_201.getStatusCode()).entity(rentalDTO).build();
+    }
+
+    /* Creates all the rentals or none of them. The response lists the created rentals by their index in the request,
+     * or when any of them fails, only the failed ones with the status each of them would have had on its own */
+    @POST
+    @RolesAllowed("admin")
+    @Path("rentals/batch")
+    @Consumes({MediaType.APPLICATION_JSON})
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response postRentals(List<RentalDTO> rentalDTOs) {
+        if (rentalDTOs == null || rentalDTOs.isEmpty()) {
+            throw new BadRequestException("Expected an array of rentals");
+        }
+        if (rentalDTOs.size() > MAX_BATCH_SIZE) {
+            throw new WebApplicationException("At most " + MAX_BATCH_SIZE + " rentals can be created at a time",
+                    HttpStatus.REQUEST_ENTITY_TOO_LARGE_413.getStatusCode());
+        }
+        List<BatchResultDTO> results = new ArrayList<>();
+
+        try {
+            List<Rental> rentals = facade.createRentals(rentalDTOs);
+            for (int index = 0; index < rentals.size(); index++) {
+                results.add(new BatchResultDTO.Builder()
+                        .setIndex(index)
+                        .setStatus(HttpStatus.CREATED_201.getStatusCode())
+                        .setId(rentals.get(index).getId())
+                        .build());
+            }
+        } catch (RentalBatchException rentalBatchException) {
+            rentalBatchException.getFailures().forEach((index, exception) -> results.add(new BatchResultDTO.Builder()
+                    .setIndex(index)
+                    .setStatus(getBatchFailureStatus(exception))
+                    .setMessage(exception.getMessage())
+                    .build()));
+            return Response.status(HttpStatus.BAD_REQUEST_400.getStatusCode()).entity(results).build();
+        }
+
+        return Response.status(HttpStatus.CREATED_201.getStatusCode()).entity(results).build();
     }
 
     @PUT
@@ -243,16 +257,15 @@ public class UserResource extends Resource {
     @Path("rentals/{id}")
     @Produces({MediaType.APPLICATION_JSON})
     @Consumes({MediaType.APPLICATION_JSON})
-    public Response putRental(@PathParam("id") int id, String rentalFromJson) {
-        RentalDTO rentalDTO = GSON.fromJson(rentalFromJson, RentalDTO.class);
+    public Response putRental(@PathParam("id") int id, RentalDTO rentalDTO) {
         Rental rental;
 
         try {
             rental = rentalFacade.getRentalById(id);
             House house = houseFacade.getHouseById(rentalDTO.getHouse().getId());
 
-            rental.setStartDate(rentalDTO.getStartDate());
-            rental.setEndDate(rentalDTO.getEndDate());
+            rental.setStartDate(ApiDateFormat.parse(rentalDTO.getStartDate()));
+            rental.setEndDate(ApiDateFormat.parse(rentalDTO.getEndDate()));
             rental.setPriceAnnual(rentalDTO.getPriceAnnual());
             rental.setDeposit(rentalDTO.getDeposit());
             rental.setContactPerson(rentalDTO.getContactPerson());
@@ -266,12 +279,16 @@ public class UserResource extends Resource {
         } catch (InvalidDateException exception) {
             return Response.status(HttpStatus.NO_CONTENT_204.getStatusCode()).build();
 
+        } catch (OverlappingRentalException overlappingRentalException) {
+            throw new WebApplicationException(overlappingRentalException.getMessage(),
+                    HttpStatus.CONFLICT_409.getStatusCode());
+
         } catch (NullPointerException nullPointerException) {
             throw new NotFoundException("House does not exist");
         }
 
         RentalDTO updatedRentalDTO = buildStandardRentalDTO(rental);
-        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(GSON.toJson(updatedRentalDTO)).build();
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(updatedRentalDTO).build();
     }
 
     @DELETE
@@ -281,17 +298,65 @@ public class UserResource extends Resource {
         try {
             facade.deleteRental(id);
         } catch (EntityNotFoundException exception) {
-
+            throw new NotFoundException(exception.getMessage());
         }
         return Response.status(HttpStatus.NO_CONTENT_204.getStatusCode()).build();
     }
 
-    private UserDTO buildStandardUserDTO(User user) {
+    /* Deletes the rentals of a comma separated list of ids, like ?ids=1,2,3, in one transaction.
+     * The response has the status of each id by its index in the list, 204 when it was deleted and 404 when
+     * there was no rental with that id */
+    @DELETE
+    @RolesAllowed("admin")
+    @Path("rentals")
+    @Produces({MediaType.APPLICATION_JSON})
+    public Response deleteRentals(@QueryParam("ids") String ids) {
+        if (ids == null || ids.trim().isEmpty()) {
+            throw new BadRequestException("Expected a comma separated list of rental ids");
+        }
+        List<Integer> rentalIds = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            try {
+                rentalIds.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException exception) {
+                throw new BadRequestException("Rental id " + id.trim() + " is not a number");
+            }
+        }
+        if (rentalIds.size() > MAX_BATCH_SIZE) {
+            throw new WebApplicationException("At most " + MAX_BATCH_SIZE + " rentals can be deleted at a time",
+                    HttpStatus.REQUEST_ENTITY_TOO_LARGE_413.getStatusCode());
+        }
+
+        Set<Integer> deletedIds = new HashSet<>(facade.deleteRentals(rentalIds));
+        List<BatchResultDTO> results = new ArrayList<>();
+        for (int index = 0; index < rentalIds.size(); index++) {
+            HttpStatus status = deletedIds.contains(rentalIds.get(index)) ? HttpStatus.NO_CONTENT_204 : HttpStatus.NOT_FOUND_404;
+            results.add(new BatchResultDTO.Builder()
+                    .setIndex(index)
+                    .setStatus(status.getStatusCode())
+                    .setId(rentalIds.get(index))
+                    .build());
+        }
+
+        return Response.status(HttpStatus.OK_200.getStatusCode()).entity(results).build();
+    }
+
+    private int getBatchFailureStatus(Exception exception) {
+        if (exception instanceof EntityNotFoundException) {
+            return HttpStatus.NOT_FOUND_404.getStatusCode();
+        }
+        if (exception instanceof OverlappingRentalException) {
+            return HttpStatus.CONFLICT_409.getStatusCode();
+        }
+        return HttpStatus.BAD_REQUEST_400.getStatusCode();
+    }
+
+    private UserDTO buildStandardUserDTO(User user, List<String> roles) {
         return new UserDTO.Builder()
                 .setId(user.getId())
                 .setUsername(user.getUsername())
                 .setAge(user.getAge())
-                .setRoles(user.getRolesAsStringList())
+                .setRoles(roles)
                 .build();
     }
 
@@ -305,8 +370,8 @@ public class UserResource extends Resource {
 
         return new RentalDTO.Builder()
                 .setId(rental.getId())
-                .setStartDate(rental.getStartDate())
-                .setEndDate(rental.getEndDate())
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
                 .setPriceAnnual(rental.getPriceAnnual())
                 .setDeposit(rental.getDeposit())
                 .setContactPerson(rental.getContactPerson())
@@ -14,9 +14,7 @@ public class UtilityResource extends Resource{
     @Path("populate")
     @POST
     @Consumes({MediaType.APPLICATION_JSON})
-    public Response populate(String populateJson) throws AuthenticationException {
-        PopulateDTO populateDTO = GSON.fromJson(populateJson, PopulateDTO.class);
-
+    public Response populate(PopulateDTO populateDTO) throws AuthenticationException {
         if (!populateDTO.getSecret().equals("exam3sem")) {
             throw new AuthenticationException("Wrong secret");
         }
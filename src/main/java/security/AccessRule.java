@@ -0,0 +1,78 @@
+package security;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+
+/* The DenyAll/PermitAll/RolesAllowed rule of one resource method, read once from its annotations by SecurityFeature.
+ * Annotations on the method take precedence over the ones on the class, DenyAll over RolesAllowed over PermitAll. */
+public final class AccessRule {
+  private static final AccessRule UNSECURED = new AccessRule(false, false, null);
+  private static final AccessRule DENY_ALL = new AccessRule(true, false, null);
+  private static final AccessRule PERMIT_ALL = new AccessRule(true, true, null);
+
+  private final boolean secured;
+  private final boolean permitAll;
+  private final Set<String> roles;
+
+  private AccessRule(boolean secured, boolean permitAll, Set<String> roles) {
+    this.secured = secured;
+    this.permitAll = permitAll;
+    this.roles = roles;
+  }
+
+  public static AccessRule of(Method resourceMethod, Class<?> resourceClass) {
+    if (resourceMethod.isAnnotationPresent(DenyAll.class)) {
+      return DENY_ALL;
+    }
+    if (resourceMethod.isAnnotationPresent(RolesAllowed.class)) {
+      return rolesAllowed(resourceMethod.getAnnotation(RolesAllowed.class));
+    }
+    if (resourceMethod.isAnnotationPresent(PermitAll.class)) {
+      return PERMIT_ALL;
+    }
+    if (resourceClass.isAnnotationPresent(DenyAll.class)) {
+      return DENY_ALL;
+    }
+    if (resourceClass.isAnnotationPresent(RolesAllowed.class)) {
+      return rolesAllowed(resourceClass.getAnnotation(RolesAllowed.class));
+    }
+    if (resourceClass.isAnnotationPresent(PermitAll.class)) {
+      return PERMIT_ALL;
+    }
+    return UNSECURED;
+  }
+
+  private static AccessRule rolesAllowed(RolesAllowed rolesAllowed) {
+    Set<String> roles = new LinkedHashSet<>(Arrays.asList(rolesAllowed.value()));
+    return new AccessRule(true, false, Collections.unmodifiableSet(roles));
+  }
+
+  //Whether the method needs a logged in user at all
+  public boolean isSecured() {
+    return secured;
+  }
+
+  public void check(SecurityContext securityContext) {
+    if (!secured || permitAll) {
+      return;
+    }
+    if (roles == null) {
+      throw new NotAuthorizedException("Resource Not Found");
+    }
+    for (String role : roles) {
+      if (securityContext.isUserInRole(role)) {
+        return;
+      }
+    }
+    throw new NotAuthorizedException("You are not authorized to perform the requested operation", Response.Status.FORBIDDEN);
+  }
+}
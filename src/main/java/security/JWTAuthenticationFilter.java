@@ -3,89 +3,82 @@ package security;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import security.errorhandling.AuthenticationException;
 
-import java.lang.annotation.Annotation;
 import java.text.ParseException;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Priority;
-import javax.annotation.security.DenyAll;
-import javax.annotation.security.PermitAll;
-import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
-import javax.ws.rs.container.ResourceInfo;
-import javax.ws.rs.core.Context;
-import javax.ws.rs.ext.Provider;
 
-@Provider
+//Registered by SecurityFeature for each secured resource method
 @Priority(Priorities.AUTHENTICATION)
 public class JWTAuthenticationFilter implements ContainerRequestFilter {
 
-    private static final List<Class<? extends Annotation>> securityAnnotations
-            = Arrays.asList(DenyAll.class, PermitAll.class, RolesAllowed.class);
-    @Context
-    private ResourceInfo resourceInfo;
+    private static final JWSVerifier VERIFIER = createVerifier();
+    private static final TokenCache TOKEN_CACHE = TokenCache.getInstance();
 
     @Override
     public void filter(ContainerRequestContext request) {
-        if (isSecuredResource()) {
-
-            String token = request.getHeaderString("x-access-token");
-            if (token == null) {
-                request.abortWith(errorhandling.GenericExceptionMapper
-                        .makeErrRes("Not authenticated - do login", 403));
-                return;
-            }
-            try {
-                UserPrincipal user = getUserPrincipalFromTokenIfValid(token);
-                request.setSecurityContext(new JWTSecurityContext(user, request));
-            } catch (AuthenticationException | ParseException | JOSEException ex) {
-                Logger.getLogger(JWTAuthenticationFilter.class.getName()).log(Level.SEVERE, null, ex);
-                request.abortWith(errorhandling.GenericExceptionMapper
-                        .makeErrRes("Token not valid (timed out?)", 403));
-            }
+        String token = request.getHeaderString("x-access-token");
+        if (token == null) {
+            request.abortWith(errorhandling.GenericExceptionMapper
+                    .makeErrRes("Not authenticated - do login", 403));
+            return;
         }
-    }
-
-    private boolean isSecuredResource() {
-        for (Class<? extends Annotation> securityClass : securityAnnotations) {
-            if (resourceInfo.getResourceMethod().isAnnotationPresent(securityClass)) {
-                return true;
-            }
+        try {
+            UserPrincipal user = getUserPrincipalFromTokenIfValid(token);
+            request.setSecurityContext(new JWTSecurityContext(user, request));
+        } catch (AuthenticationException | ParseException | JOSEException ex) {
+            Logger.getLogger(JWTAuthenticationFilter.class.getName()).log(Level.SEVERE, null, ex);
+            request.abortWith(errorhandling.GenericExceptionMapper
+                    .makeErrRes("Token not valid (timed out?)", 403));
         }
-        for (Class<? extends Annotation> securityClass : securityAnnotations) {
-            if (resourceInfo.getResourceClass().isAnnotationPresent(securityClass)) {
-                return true;
-            }
-        }
-        return false;
     }
 
     private UserPrincipal getUserPrincipalFromTokenIfValid(String token)
             throws ParseException, JOSEException, AuthenticationException {
+        UserPrincipal cachedUser = TOKEN_CACHE.get(token);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        long start = System.nanoTime();
         SignedJWT signedJWT = SignedJWT.parse(token);
         //Is it a valid token (generated with our shared key)
-        JWSVerifier verifier = new MACVerifier(SharedSecret.getSharedKey());
+        boolean verified = signedJWT.verify(VERIFIER);
+        TOKEN_CACHE.recordVerification(System.nanoTime() - start);
 
-        if (signedJWT.verify(verifier)) {
-            if (new Date().getTime() > signedJWT.getJWTClaimsSet().getExpirationTime().getTime()) {
+        if (verified) {
+            JWTClaimsSet claimsSet = signedJWT.getJWTClaimsSet();
+            long expiresAt = claimsSet.getExpirationTime().getTime();
+            if (new Date().getTime() > expiresAt) {
                 throw new AuthenticationException("Your Token is no longer valid");
             }
-            String userId = signedJWT.getJWTClaimsSet().getSubject();
-            String roles = signedJWT.getJWTClaimsSet().getClaim("roles").toString();
+            String userId = claimsSet.getSubject();
+            String roles = claimsSet.getClaim("roles").toString();
 
             String[] rolesArray = roles.split(",");
 
-            return new UserPrincipal(userId, rolesArray);
+            UserPrincipal user = new UserPrincipal(userId, rolesArray);
+            TOKEN_CACHE.put(token, user, expiresAt);
+            return user;
         } else {
             throw new JOSEException("User could not be extracted from token");
         }
     }
+
+    //MACVerifier is immutable, so one instance is shared by all requests
+    private static JWSVerifier createVerifier() {
+        try {
+            return new MACVerifier(SharedSecret.getSharedKey());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("The shared key can not be used to verify tokens", e);
+        }
+    }
 }
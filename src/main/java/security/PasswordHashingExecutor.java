@@ -0,0 +1,84 @@
+package security;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* The threads BCrypt runs on, so logins and user creation can not take all the CPU from the rest of the API.
+ * Only the hashing itself runs here, the caller waits for it and does its database work on its own thread.
+ * At most `threads` hashes run at the same time and `queueSize` more may wait, anything beyond that is rejected
+ * right away so the caller can answer 503 instead of queueing without bound.
+ * The application uses the one from getDefault(), sized by PASSWORD_HASHING_THREADS and
+ * PASSWORD_HASHING_QUEUE_SIZE as system properties or environment variables (system properties win). */
+public class PasswordHashingExecutor {
+    public static final int DEFAULT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+
+    private static final PasswordHashingExecutor DEFAULT = new PasswordHashingExecutor(
+            getSetting("PASSWORD_HASHING_THREADS", DEFAULT_THREADS),
+            getSetting("PASSWORD_HASHING_QUEUE_SIZE", DEFAULT_QUEUE_SIZE));
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingExecutor(int threads, int queueSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHashingExecutor getDefault() {
+        return DEFAULT;
+    }
+
+    public <T> Future<T> submit(Callable<T> task) throws RejectedExecutionException {
+        return executor.submit(task);
+    }
+
+    public String hash(String password) throws RejectedExecutionException {
+        return await(submit(() -> BCrypt.hashpw(password, BCrypt.gensalt())));
+    }
+
+    public boolean check(String password, String hash) throws RejectedExecutionException {
+        return await(submit(() -> BCrypt.checkpw(password, hash)));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password hashing", e);
+        }
+    }
+
+    private static int getSetting(String name, int defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,21 @@
+package security;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+/* Reads the security annotations of every resource method once, when the application starts.
+ * Only secured methods get the JWTAuthenticationFilter and a RolesAllowedFilter holding their AccessRule,
+ * so a request never looks at annotations and unsecured methods skip both filters. */
+@Provider
+public class SecurityFeature implements DynamicFeature {
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        AccessRule accessRule = AccessRule.of(resourceInfo.getResourceMethod(), resourceInfo.getResourceClass());
+        if (accessRule.isSecured()) {
+            context.register(new JWTAuthenticationFilter());
+            context.register(new RolesAllowedFilter(accessRule));
+        }
+    }
+}
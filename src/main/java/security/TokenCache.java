@@ -0,0 +1,113 @@
+package security;
+
+import utils.LatencyHistogram;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Tokens that JWTAuthenticationFilter has already verified, mapped to the principal they carry,
+ * so a token is only parsed and verified once instead of on every request during its lifetime.
+ * Entries are keyed by the SHA-256 digest of the token and dropped when the token expires.
+ * At most MAX_SIZE tokens are kept, the least recently used one goes first. */
+public class TokenCache {
+    public static final int MAX_SIZE = 10_000;
+    private static final TokenCache INSTANCE = new TokenCache(MAX_SIZE);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LatencyHistogram verificationTime = new LatencyHistogram();
+
+    TokenCache(int maxSize) {
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static TokenCache getInstance() {
+        return INSTANCE;
+    }
+
+    //The principal of a verified token that has not expired yet, or null if the token has to be verified
+    UserPrincipal get(String token) {
+        String key = digest(token);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal;
+    }
+
+    void put(String token, UserPrincipal principal, long expiresAt) {
+        String key = digest(token);
+        synchronized (entries) {
+            entries.put(key, new Entry(principal, expiresAt));
+        }
+    }
+
+    void recordVerification(long nanos) {
+        verificationTime.record(nanos);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public LatencyHistogram getVerificationTime() {
+        return verificationTime;
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static class Entry {
+        private final UserPrincipal principal;
+        private final long expiresAt;
+
+        private Entry(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -2,16 +2,17 @@ package security;
 
 import java.security.Principal;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 public class UserPrincipal implements Principal {
   private final String userId;
-  private final List<String> roles;
+  private final Set<String> roles;
 
   public UserPrincipal(String userId, String[] roles) {
     super();
     this.userId = userId;
-    this.roles = Arrays.asList(roles);
+    this.roles = new HashSet<>(Arrays.asList(roles));
   }
 
   @Override
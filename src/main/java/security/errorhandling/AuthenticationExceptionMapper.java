@@ -1,7 +1,5 @@
 package security.errorhandling;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import errorhandling.ExceptionDTO;
 import javax.servlet.ServletContext;
 import javax.ws.rs.core.Context;
@@ -12,7 +10,6 @@ import javax.ws.rs.ext.Provider;
 
 @Provider
 public class AuthenticationExceptionMapper implements ExceptionMapper<AuthenticationException> {
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private static final int ERROR_CODE = 403;
     @Context
     ServletContext context;
@@ -20,6 +17,6 @@ public class AuthenticationExceptionMapper implements ExceptionMapper<Authentica
     @Override
     public Response toResponse(AuthenticationException ex) {
         ExceptionDTO err = new ExceptionDTO(ERROR_CODE, ex.getMessage());
-        return Response.status(ERROR_CODE).entity(gson.toJson(err)).type(MediaType.APPLICATION_JSON).build();
+        return Response.status(ERROR_CODE).entity(err).type(MediaType.APPLICATION_JSON).build();
     }   
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package security.errorhandling;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import errorhandling.ExceptionDTO;
 import javax.servlet.ServletContext;
 import javax.ws.rs.NotAuthorizedException;
@@ -13,7 +11,6 @@ import javax.ws.rs.ext.Provider;
 
 @Provider
 public class NotAuthorizedExceptionMapper implements ExceptionMapper<NotAuthorizedException> {
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private static final int ERROR_CODE = 401;
     @Context
     ServletContext context;
@@ -21,6 +18,6 @@ public class NotAuthorizedExceptionMapper implements ExceptionMapper<NotAuthoriz
     @Override
     public Response toResponse(NotAuthorizedException ex) {
         ExceptionDTO err = new ExceptionDTO(ERROR_CODE, ex.getMessage());
-        return Response.status(ERROR_CODE).entity(gson.toJson(err)).type(MediaType.APPLICATION_JSON).build();
+        return Response.status(ERROR_CODE).entity(err).type(MediaType.APPLICATION_JSON).build();
     }   
 }
\ No newline at end of file
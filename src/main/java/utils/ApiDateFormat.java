@@ -0,0 +1,35 @@
+package utils;
+
+import errorhandling.InvalidDateException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/* The dd/MM/yyyy format dates have in the API, e.g. 24/12/2022.
+ * Parsing is strict, so impossible dates like 31/02/2022 are rejected instead of rolled over.
+ * DateTimeFormatter is immutable, so the one instance is shared by all threads. */
+public class ApiDateFormat {
+    public static final String PATTERN = "dd/MM/uuuu";
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN)
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private ApiDateFormat() {
+    }
+
+    public static LocalDate parse(String date) throws InvalidDateException {
+        if (date == null) {
+            throw new InvalidDateException("The date is missing");
+        }
+        try {
+            return LocalDate.parse(date, FORMATTER);
+        } catch (DateTimeParseException exception) {
+            throw new InvalidDateException("The date format is not valid");
+        }
+    }
+
+    public static String format(LocalDate date) {
+        return date == null ? null : date.format(FORMATTER);
+    }
+}
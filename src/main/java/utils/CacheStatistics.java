@@ -0,0 +1,92 @@
+package utils;
+
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.SessionProfiler;
+import org.eclipse.persistence.sessions.SessionProfilerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* EclipseLink profiler that only counts the cache hits and misses it is told about, per entity class.
+ * Installed by EMF_Creator, one instance per session, from when the session is created until it logs out with the
+ * last factory using it. Sessions can have the same name, so the instances are kept by identity like PoolMetrics. */
+public class CacheStatistics extends SessionProfilerAdapter {
+    private static final Set<CacheStatistics> SESSIONS = ConcurrentHashMap.newKeySet();
+
+    private final Map<Class<?>, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LongAdder> misses = new ConcurrentHashMap<>();
+    private Session session;
+    private String unitName;
+
+    public static CacheStatistics forSession(Session session) {
+        for (CacheStatistics statistics : SESSIONS) {
+            if (statistics.session == session) {
+                return statistics;
+            }
+        }
+        return null;
+    }
+
+    public static List<CacheStatistics> getAll() {
+        return new ArrayList<>(SESSIONS);
+    }
+
+    //Only the first call registers, that is the server session the profiler is installed on
+    @Override
+    public synchronized void setSession(Session session) {
+        if (this.session != null) {
+            return;
+        }
+        this.session = session;
+        unitName = session.getName();
+        SESSIONS.add(this);
+        session.getEventManager().addListener(new SessionEventAdapter() {
+            @Override
+            public void postLogout(SessionEvent event) {
+                SESSIONS.remove(CacheStatistics.this);
+            }
+        });
+    }
+
+    @Override
+    public void occurred(String operationName, DatabaseQuery query, AbstractSession session) {
+        if (query == null || query.getReferenceClass() == null) {
+            return;
+        }
+        if (SessionProfiler.CacheHits.equals(operationName)) {
+            hits.computeIfAbsent(query.getReferenceClass(), key -> new LongAdder()).increment();
+        } else if (SessionProfiler.CacheMisses.equals(operationName)) {
+            misses.computeIfAbsent(query.getReferenceClass(), key -> new LongAdder()).increment();
+        }
+    }
+
+    public String getUnitName() {
+        return unitName;
+    }
+
+    public List<Class<?>> getEntityClasses() {
+        List<Class<?>> entityClasses = new ArrayList<>(hits.keySet());
+        misses.keySet().stream()
+                .filter(entityClass -> !entityClasses.contains(entityClass))
+                .forEach(entityClasses::add);
+        return entityClasses;
+    }
+
+    public long getHits(Class<?> entityClass) {
+        LongAdder counter = hits.get(entityClass);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getMisses(Class<?> entityClass) {
+        LongAdder counter = misses.get(entityClass);
+        return counter == null ? 0 : counter.sum();
+    }
+}
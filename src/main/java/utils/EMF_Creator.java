@@ -5,8 +5,16 @@ import java.io.InputStream;
 import java.util.Properties;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.persistence.SharedCacheMode;
+
+import facades.ReadReplicas;
+import org.eclipse.persistence.config.BatchWriting;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
 
 public class EMF_Creator {
+    public static final int BATCH_WRITING_SIZE = 100;
+    //The database of the puTest persistence unit
+    private static final String TEST_DB_NAME = "backend_db_test";
 
     public static void startREST_TestWithDB() {
         System.setProperty("IS_INTEGRATION_TEST_WITH_DB", "testing");
@@ -36,7 +44,10 @@ public class EMF_Creator {
             String user = System.getenv("USER");
             String pw = System.getenv("PW");
             String dbName = getDbName(); //Gets the database name from pom.xml
-            String connection_str = System.getenv("CONNECTION_STR") + dbName; //Creates the full JDBC connection string
+            //Creates the full JDBC connection string, useCursorFetch lets the list endpoints stream large results
+            //rewriteBatchedStatements makes the driver send a JDBC batch of inserts as one multi-row INSERT
+            String connection_str = System.getenv("CONNECTION_STR") + dbName
+                    + "?useCursorFetch=true&rewriteBatchedStatements=true";
             Properties props = new Properties();
             props.setProperty("javax.persistence.jdbc.user", user);
             props.setProperty("javax.persistence.jdbc.password", pw);
@@ -46,7 +57,8 @@ public class EMF_Creator {
             //Sets the production log-level to show only potential problems
             props.setProperty("eclipselink.logging.level", "WARNING");
             props.setProperty("eclipselink.logging.level.sql", "WARNING");
-            return Persistence.createEntityManagerFactory("pu", props);
+            addSessionSettings(props, "pu");
+            return withReadReplica(Persistence.createEntityManagerFactory("pu", props), "pu", props);
         }
 
         String puName = isTest || System.getProperty("IS_INTEGRATION_TEST_WITH_DB") != null ? "puTest" : "pu"; //Only legal names
@@ -55,9 +67,11 @@ public class EMF_Creator {
         } else {
             System.out.println("Using the DEV database via persistence-unit --> pu ");
         }
+        Properties props = new Properties();
+        addSessionSettings(props, puName);
         EntityManagerFactory emf = null;
         try {
-            emf = Persistence.createEntityManagerFactory(puName, null);
+            emf = Persistence.createEntityManagerFactory(puName, props);
 
         } catch (javax.persistence.PersistenceException ex) {
             System.out.println("##########################################################");
@@ -67,9 +81,77 @@ public class EMF_Creator {
             System.out.println("##########################################################");
             throw ex;
         }
+        return withReadReplica(emf, puName, props);
+    }
+
+    /* Registers a read replica for the factory when DB_REPLICA_URL is set, see facades.ReadReplicas.
+     * The replica uses the same persistence unit with DB_REPLICA_URL as its JDBC url, and DB_REPLICA_USER and
+     * DB_REPLICA_PASSWORD as user and password when they are set. Its pool is named after the session with a
+     * "-replica" suffix. DB_REPLICA_MAX_LAG_MS is how long after a commit reads still go to the primary.
+     * All of them are system properties or environment variables (system properties win). */
+    private static EntityManagerFactory withReadReplica(EntityManagerFactory emf, String puName, Properties props) {
+        String url = getSetting("DB_REPLICA_URL");
+        if (url == null) {
+            return emf;
+        }
+        System.out.println("Reading from the replica at --> " + url);
+        Properties replicaProps = createReplicaProperties(puName, props, url);
+        if (getSetting("DB_REPLICA_USER") != null) {
+            replicaProps.setProperty("javax.persistence.jdbc.user", getSetting("DB_REPLICA_USER"));
+        }
+        if (getSetting("DB_REPLICA_PASSWORD") != null) {
+            replicaProps.setProperty("javax.persistence.jdbc.password", getSetting("DB_REPLICA_PASSWORD"));
+        }
+        //The schema of the replica is replicated from the primary
+        replicaProps.setProperty(PersistenceUnitProperties.SCHEMA_GENERATION_DATABASE_ACTION,
+                PersistenceUnitProperties.SCHEMA_GENERATION_NONE_ACTION);
+        String maxLagMs = getSetting("DB_REPLICA_MAX_LAG_MS");
+
+        ReadReplicas.register(emf, Persistence.createEntityManagerFactory(puName, replicaProps),
+                maxLagMs == null ? ReadReplicas.DEFAULT_MAX_LAG_MS : Long.parseLong(maxLagMs));
         return emf;
     }
 
+    /* A replica for the tests, in a database of its own next to the test database. It is not replicated to,
+     * so a test can tell which of the two a read went to by what it finds. The schema is created like the
+     * test database's, and on MySQL the database is created when it does not exist */
+    public static EntityManagerFactory createReadReplicaForTest(EntityManagerFactory primary) {
+        String url = ((String) primary.getProperties().get("javax.persistence.jdbc.url"))
+                .replaceFirst(TEST_DB_NAME, TEST_DB_NAME + "_replica");
+        if (url.startsWith("jdbc:mysql:")) {
+            url += (url.contains("?") ? "&" : "?") + "createDatabaseIfNotExist=true";
+        }
+        return Persistence.createEntityManagerFactory("puTest", createReplicaProperties("puTest", new Properties(), url));
+    }
+
+    //Nothing written through the primary would be evicted from a shared cache of the replica, so it has none
+    private static Properties createReplicaProperties(String puName, Properties props, String url) {
+        Properties replicaProps = new Properties();
+        replicaProps.putAll(props);
+        replicaProps.setProperty("javax.persistence.jdbc.url", url);
+        addSessionSettings(replicaProps, puName + "-replica");
+        replicaProps.setProperty(PersistenceUnitProperties.SHARED_CACHE_MODE, SharedCacheMode.NONE.name());
+        return replicaProps;
+    }
+
+    //Connections are handed out by a HikariCP pool, see utils.PooledConnectionCustomizer for the settings
+    //Shared cache hits and misses are counted by utils.CacheStatistics
+    //Inserts and updates of one commit are sent to the database as JDBC batches of up to BATCH_WRITING_SIZE statements
+    //Committed changes are counted per entity class by utils.TableVersions, for the ETags of the read endpoints
+    private static void addSessionSettings(Properties props, String puName) {
+        props.setProperty(PersistenceUnitProperties.SESSION_NAME, puName);
+        props.setProperty(PersistenceUnitProperties.SESSION_CUSTOMIZER, PooledConnectionCustomizer.class.getName());
+        props.setProperty(PersistenceUnitProperties.PROFILER, CacheStatistics.class.getName());
+        props.setProperty(PersistenceUnitProperties.SESSION_EVENT_LISTENER_CLASS, TableVersions.class.getName());
+        props.setProperty(PersistenceUnitProperties.BATCH_WRITING, BatchWriting.JDBC);
+        props.setProperty(PersistenceUnitProperties.BATCH_WRITING_SIZE, String.valueOf(BATCH_WRITING_SIZE));
+    }
+
+    private static String getSetting(String name) {
+        String value = System.getProperty(name, System.getenv(name));
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
     private static String getDbName() {
         Properties pomProperties;
         InputStream is = EMF_Creator.class.getClassLoader().getResourceAsStream("properties-from-pom.properties");
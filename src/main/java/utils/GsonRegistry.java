@@ -0,0 +1,65 @@
+package utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dtos.AvailabilityDTO;
+import dtos.BatchResultDTO;
+import dtos.CacheMetricsDTO;
+import dtos.EntityManagerMetricsDTO;
+import dtos.HouseDTO;
+import dtos.LoginDTO;
+import dtos.PeriodDTO;
+import dtos.PoolMetricsDTO;
+import dtos.PopulateDTO;
+import dtos.RentalDTO;
+import dtos.TenantDTO;
+import dtos.TokenMetricsDTO;
+import dtos.UserDTO;
+import dtos.adapters.AvailabilityDTOAdapter;
+import dtos.adapters.BatchResultDTOAdapter;
+import dtos.adapters.CacheMetricsDTOAdapter;
+import dtos.adapters.EntityManagerMetricsDTOAdapter;
+import dtos.adapters.HouseDTOAdapter;
+import dtos.adapters.LoginDTOAdapter;
+import dtos.adapters.PeriodDTOAdapter;
+import dtos.adapters.PoolMetricsDTOAdapter;
+import dtos.adapters.PopulateDTOAdapter;
+import dtos.adapters.RentalDTOAdapter;
+import dtos.adapters.TenantDTOAdapter;
+import dtos.adapters.TokenMetricsDTOAdapter;
+import dtos.adapters.UserDTOAdapter;
+import errorhandling.ExceptionDTO;
+import errorhandling.ExceptionDTOAdapter;
+
+/* The Gson instances used by the resources and the exception mappers.
+ * Every DTO has a hand-written TypeAdapter, so Gson never has to reflect over them, and the output is compact.
+ * PRETTY is only meant for ?pretty=true, it writes the same JSON with indentation. */
+public class GsonRegistry {
+    public static final Gson COMPACT = configure(new GsonBuilder()).create();
+    public static final Gson PRETTY = configure(new GsonBuilder()).setPrettyPrinting().create();
+
+    private GsonRegistry() {
+    }
+
+    public static Gson get(boolean pretty) {
+        return pretty ? PRETTY : COMPACT;
+    }
+
+    private static GsonBuilder configure(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(UserDTO.class, new UserDTOAdapter().nullSafe())
+                .registerTypeAdapter(RentalDTO.class, new RentalDTOAdapter().nullSafe())
+                .registerTypeAdapter(HouseDTO.class, new HouseDTOAdapter().nullSafe())
+                .registerTypeAdapter(TenantDTO.class, new TenantDTOAdapter().nullSafe())
+                .registerTypeAdapter(AvailabilityDTO.class, new AvailabilityDTOAdapter().nullSafe())
+                .registerTypeAdapter(PeriodDTO.class, new PeriodDTOAdapter().nullSafe())
+                .registerTypeAdapter(BatchResultDTO.class, new BatchResultDTOAdapter().nullSafe())
+                .registerTypeAdapter(LoginDTO.class, new LoginDTOAdapter().nullSafe())
+                .registerTypeAdapter(PopulateDTO.class, new PopulateDTOAdapter().nullSafe())
+                .registerTypeAdapter(PoolMetricsDTO.class, new PoolMetricsDTOAdapter().nullSafe())
+                .registerTypeAdapter(CacheMetricsDTO.class, new CacheMetricsDTOAdapter().nullSafe())
+                .registerTypeAdapter(TokenMetricsDTO.class, new TokenMetricsDTOAdapter().nullSafe())
+                .registerTypeAdapter(EntityManagerMetricsDTO.class, new EntityManagerMetricsDTOAdapter().nullSafe())
+                .registerTypeAdapter(ExceptionDTO.class, new ExceptionDTOAdapter().nullSafe());
+    }
+}
@@ -0,0 +1,53 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Lock free, fixed bucket histogram of durations.
+ * The snapshot is cumulative ("less than or equal" per bucket) so it can be scraped as is. */
+public class LatencyHistogram {
+    private static final double[] BUCKET_BOUNDS_MS = {0.1, 0.5, 1, 5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        double millis = nanos / 1_000_000.0;
+        int i = 0;
+        while (i < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumMillis() {
+        return sumNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            cumulative += buckets[i].sum();
+            snapshot.put("le_" + BUCKET_BOUNDS_MS[i] + "ms", cumulative);
+        }
+        cumulative += buckets[BUCKET_BOUNDS_MS.length].sum();
+        snapshot.put("le_inf", cumulative);
+        return snapshot;
+    }
+}
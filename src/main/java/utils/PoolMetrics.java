@@ -0,0 +1,94 @@
+package utils;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Receives the metrics Hikari reports for a pool and keeps them around for the metrics endpoint.
+ * One instance per pool, from when the pool starts until Hikari closes it together with the pool. Two factories of
+ * the same persistence unit have pools of the same name, so the instances are kept by identity and not by name. */
+public class PoolMetrics implements IMetricsTracker {
+    private static final Set<PoolMetrics> POOLS = ConcurrentHashMap.newKeySet();
+
+    private final String poolName;
+    private final PoolStats poolStats;
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    private PoolMetrics(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+    }
+
+    static PoolMetrics register(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolName, poolStats);
+        POOLS.add(metrics);
+        return metrics;
+    }
+
+    public static List<PoolMetrics> getAll() {
+        return new ArrayList<>(POOLS);
+    }
+
+    @Override
+    public void close() {
+        POOLS.remove(this);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireTime.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageTime.record(elapsedBorrowedMillis * 1_000_000);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getActiveConnections() {
+        return poolStats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return poolStats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        return poolStats.getTotalConnections();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return poolStats.getPendingThreads();
+    }
+
+    public int getMaxConnections() {
+        return poolStats.getMaxConnections();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public LatencyHistogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    public LatencyHistogram getUsageTime() {
+        return usageTime;
+    }
+}
@@ -0,0 +1,113 @@
+package utils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.sequencing.Sequence;
+import org.eclipse.persistence.sessions.DatabaseLogin;
+import org.eclipse.persistence.sessions.DatabaseSession;
+import org.eclipse.persistence.sessions.JNDIConnector;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+import org.eclipse.persistence.sessions.server.Server;
+
+/* Replaces EclipseLink's internal connection handling with a bounded HikariCP pool.
+ * The JDBC url, user and password are still taken from persistence.xml (or the properties set by EMF_Creator),
+ * only the way connections are obtained changes.
+ *
+ * The pool can be tuned with the system properties or environment variables below (system properties win):
+ *   DB_POOL_MIN_IDLE, DB_POOL_MAX_SIZE, DB_POOL_CONNECTION_TIMEOUT_MS, DB_POOL_VALIDATION_TIMEOUT_MS,
+ *   DB_POOL_IDLE_TIMEOUT_MS, DB_POOL_MAX_LIFETIME_MS, DB_POOL_LEAK_DETECTION_MS (0 disables leak detection)
+ *
+ * Blocks of ids (see entities.IdSequences) are read from the sequence table in short transactions of their own, on
+ * a second pool of SEQUENCE_POOL_SIZE connections named after the session with a "-sequences" suffix. A block is
+ * then shared by all threads, and a commit that needs a new block never waits for a connection of the main pool
+ * while holding one. DB_ID_ALLOCATION_SIZE overrides the number of ids in a block.
+ *
+ * facades.UnitOfWork.runIsolated reads on a third pool of ISOLATED_POOL_SIZE connections, the "-isolated" suffix,
+ * added to the session as ISOLATED_POOL. The requests hold on to a connection of the main pool, an isolated read
+ * they make must not need a second one from it or ten of them at once would wait for each other. */
+public class PooledConnectionCustomizer implements SessionCustomizer {
+    public static final int DEFAULT_MIN_IDLE = 2;
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final long DEFAULT_CONNECTION_TIMEOUT_MS = 5_000;
+    public static final long DEFAULT_VALIDATION_TIMEOUT_MS = 2_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 600_000;
+    public static final long DEFAULT_MAX_LIFETIME_MS = 1_800_000;
+    public static final long DEFAULT_LEAK_DETECTION_MS = 30_000;
+    public static final int SEQUENCE_POOL_SIZE = 2;
+    public static final int ISOLATED_POOL_SIZE = 2;
+    public static final String ISOLATED_POOL = "isolated";
+
+    @Override
+    public void customize(Session session) {
+        DatabaseLogin login = (DatabaseLogin) session.getDatasourceLogin();
+        String poolName = session.getName();
+
+        HikariDataSource dataSource = createDataSource(login, poolName,
+                (int) getSetting("DB_POOL_MIN_IDLE", DEFAULT_MIN_IDLE),
+                (int) getSetting("DB_POOL_MAX_SIZE", DEFAULT_MAX_SIZE));
+        String sequencePoolName = poolName + "-sequences";
+        HikariDataSource sequenceDataSource = createDataSource(login, sequencePoolName, 0, SEQUENCE_POOL_SIZE);
+        HikariDataSource isolatedDataSource = createDataSource(login, poolName + "-isolated", 0, ISOLATED_POOL_SIZE);
+
+        login.setConnector(new JNDIConnector(dataSource));
+        login.useExternalConnectionPooling();
+        //The pool owns the credentials, otherwise EclipseLink would call getConnection(user, password) on it
+        login.removeProperty("user");
+        login.removeProperty("password");
+
+        DatabaseLogin sequenceLogin = (DatabaseLogin) login.clone();
+        sequenceLogin.setConnector(new JNDIConnector(sequenceDataSource));
+        ((DatabaseSession) session).getSequencingControl().setShouldUseSeparateConnection(true);
+        ((DatabaseSession) session).getSequencingControl().setLogin(sequenceLogin);
+        int allocationSize = (int) getSetting("DB_ID_ALLOCATION_SIZE", 0);
+        if (allocationSize > 0) {
+            for (Object sequence : login.getSequences().values()) {
+                ((Sequence) sequence).setPreallocationSize(allocationSize);
+            }
+        }
+
+        DatabaseLogin isolatedLogin = (DatabaseLogin) login.clone();
+        isolatedLogin.setConnector(new JNDIConnector(isolatedDataSource));
+        ((Server) session).addConnectionPool(ISOLATED_POOL, isolatedLogin, 0, ISOLATED_POOL_SIZE);
+
+        //Closes the pools together with the EntityManagerFactory
+        session.getEventManager().addListener(new SessionEventAdapter() {
+            @Override
+            public void postLogout(SessionEvent event) {
+                dataSource.close();
+                sequenceDataSource.close();
+                isolatedDataSource.close();
+            }
+        });
+    }
+
+    private static HikariDataSource createDataSource(DatabaseLogin login, String poolName, int minIdle, int maxSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(login.getDriverClassName());
+        config.setJdbcUrl(login.getConnectionString());
+        config.setUsername(login.getUserName());
+        config.setPassword(login.getPassword());
+
+        config.setMinimumIdle(minIdle);
+        config.setMaximumPoolSize(maxSize);
+        config.setConnectionTimeout(getSetting("DB_POOL_CONNECTION_TIMEOUT_MS", DEFAULT_CONNECTION_TIMEOUT_MS));
+        config.setValidationTimeout(getSetting("DB_POOL_VALIDATION_TIMEOUT_MS", DEFAULT_VALIDATION_TIMEOUT_MS));
+        config.setIdleTimeout(getSetting("DB_POOL_IDLE_TIMEOUT_MS", DEFAULT_IDLE_TIMEOUT_MS));
+        config.setMaxLifetime(getSetting("DB_POOL_MAX_LIFETIME_MS", DEFAULT_MAX_LIFETIME_MS));
+        config.setLeakDetectionThreshold(getSetting("DB_POOL_LEAK_DETECTION_MS", DEFAULT_LEAK_DETECTION_MS));
+        config.setMetricsTrackerFactory(PoolMetrics::register);
+        return new HikariDataSource(config);
+    }
+
+    private static long getSetting(String name, long defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,121 @@
+package utils;
+
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.DescriptorEvent;
+import org.eclipse.persistence.descriptors.DescriptorEventAdapter;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* A change counter and last modified time per entity class, so the read endpoints can answer If-None-Match and
+ * If-Modified-Since without going to the database.
+ * Installed by EMF_Creator as a session event listener: it listens to the inserts, updates and deletes of every
+ * entity and counts each changed class once when the transaction has committed, so a version is never handed
+ * out for data that is not visible yet. JPQL bulk updates and deletes do not raise these events, whatever
+ * runs them has to call changed itself.
+ * Like RentalCalendar it assumes this application is the only one writing to the database. The versions start
+ * over when the application starts, so EPOCH is part of every ETag built from them. */
+public class TableVersions extends SessionEventAdapter {
+    public static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final String CHANGED_CLASSES = "TableVersions.changedClasses";
+    //Last-Modified has a resolution of seconds
+    private static final long STARTED = System.currentTimeMillis() / 1000 * 1000;
+    private static final Map<Class<?>, Version> VERSIONS = new ConcurrentHashMap<>();
+
+    public static long getVersion(Class<?> entityClass) {
+        Version version = VERSIONS.get(entityClass);
+        return version == null ? 0 : version.counter.get();
+    }
+
+    //The latest last modified time of the classes
+    public static Date getLastModified(Class<?>... entityClasses) {
+        long lastModified = STARTED;
+        for (Class<?> entityClass : entityClasses) {
+            Version version = VERSIONS.get(entityClass);
+            if (version != null) {
+                lastModified = Math.max(lastModified, version.lastModified);
+            }
+        }
+        return new Date(lastModified);
+    }
+
+    public static void changed(Class<?> entityClass) {
+        VERSIONS.computeIfAbsent(entityClass, changedClass -> new Version()).increment();
+    }
+
+    @Override
+    public void postLogin(SessionEvent event) {
+        DescriptorEventAdapter listener = new DescriptorEventAdapter() {
+            @Override
+            public void postInsert(DescriptorEvent descriptorEvent) {
+                record(descriptorEvent);
+            }
+
+            @Override
+            public void postUpdate(DescriptorEvent descriptorEvent) {
+                record(descriptorEvent);
+            }
+
+            @Override
+            public void postDelete(DescriptorEvent descriptorEvent) {
+                record(descriptorEvent);
+            }
+        };
+        for (ClassDescriptor descriptor : event.getSession().getDescriptors().values()) {
+            descriptor.getEventManager().addListener(listener);
+        }
+    }
+
+    @Override
+    public void postCommitUnitOfWork(SessionEvent event) {
+        Set<Class<?>> changedClasses = takeChangedClasses(event.getSession());
+        if (changedClasses != null) {
+            changedClasses.forEach(TableVersions::changed);
+        }
+    }
+
+    //What a failed commit left behind is counted with the next commit of the same EntityManager, or dropped here
+    @Override
+    public void postReleaseUnitOfWork(SessionEvent event) {
+        takeChangedClasses(event.getSession());
+    }
+
+    //The classes are collected on the unit of work that is being committed
+    @SuppressWarnings("unchecked")
+    private static void record(DescriptorEvent event) {
+        Session session = event.getSession();
+        Set<Class<?>> changedClasses = (Set<Class<?>>) session.getProperty(CHANGED_CLASSES);
+        if (changedClasses == null) {
+            changedClasses = new HashSet<>();
+            session.setProperty(CHANGED_CLASSES, changedClasses);
+        }
+        changedClasses.add(event.getDescriptor().getJavaClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Class<?>> takeChangedClasses(Session session) {
+        Set<Class<?>> changedClasses = (Set<Class<?>>) session.getProperty(CHANGED_CLASSES);
+        if (changedClasses != null) {
+            session.removeProperty(CHANGED_CLASSES);
+        }
+        return changedClasses;
+    }
+
+    private static class Version {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long lastModified = STARTED;
+
+        private synchronized void increment() {
+            lastModified = Math.max(lastModified, System.currentTimeMillis() / 1000 * 1000);
+            counter.incrementAndGet();
+        }
+    }
+}
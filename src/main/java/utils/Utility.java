@@ -9,7 +9,7 @@ import dtos.UserDTO;
 import java.io.UnsupportedEncodingException;
 
 public class Utility {
-    private static final Gson gson = new GsonBuilder().create();
+    private static final Gson gson = GsonRegistry.COMPACT;
     
     public static void printAllProperties() {
             Properties prop = System.getProperties();
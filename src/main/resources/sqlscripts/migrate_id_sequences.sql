@@ -0,0 +1,20 @@
+-- -----------------------------------------------------
+-- Ids from the id_sequences table instead of AUTO_INCREMENT (see entities.IdSequences)
+-- Every row holds the last id handed out for its table, it is started at the highest id already in the table
+-- Run it before the application is started on the new version. Running it again is harmless
+-- -----------------------------------------------------
+USE `startcode_v2` ;
+
+CREATE TABLE IF NOT EXISTS `id_sequences` (
+    `sequence_name` VARCHAR(50) NOT NULL,
+    `last_id`       BIGINT      NULL,
+    PRIMARY KEY (`sequence_name`))
+    ENGINE = InnoDB;
+
+INSERT INTO `id_sequences` (`sequence_name`, `last_id`)
+SELECT 'houses', COALESCE(MAX(`id`), 0) FROM `houses`
+UNION ALL SELECT 'rentals', COALESCE(MAX(`id`), 0) FROM `rentals`
+UNION ALL SELECT 'roles', COALESCE(MAX(`id`), 0) FROM `roles`
+UNION ALL SELECT 'tenants', COALESCE(MAX(`id`), 0) FROM `tenants`
+UNION ALL SELECT 'users', COALESCE(MAX(`id`), 0) FROM `users`
+ON DUPLICATE KEY UPDATE `last_id` = GREATEST(COALESCE(`id_sequences`.`last_id`, 0), VALUES(`last_id`));
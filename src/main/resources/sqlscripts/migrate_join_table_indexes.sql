@@ -0,0 +1,43 @@
+-- -----------------------------------------------------
+-- Indexes for the foreign keys and join table directions read by UserFacade
+-- rentals.houses_id is the first column of idx_rentals_house_dates (migrate_rental_dates.sql), the join tables are
+-- read in the other direction by their primary keys (rental_id, tenant_id) and (user_id, role_id)
+-- An index is only created where no index starts with its first column yet. InnoDB secondary indexes carry the
+-- primary key, so one made by MySQL for a foreign key, or by EclipseLink from the entities, serves the same reads
+-- Run it before the application is started on the new version. Running it again is harmless
+-- -----------------------------------------------------
+USE `startcode_v2` ;
+
+-- The tenants of a user, GET /api/users/user-rentals
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'tenants'
+                 AND column_name = 'user_id' AND seq_in_index = 1) > 0,
+              'SELECT ''tenants.user_id already has an index''',
+              'CREATE INDEX `idx_tenants_user` ON `tenants` (`user_id`)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- The rentals of a tenant, GET /api/users/user-rentals
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'tenants_rentals'
+                 AND column_name = 'tenant_id' AND seq_in_index = 1) > 0,
+              'SELECT ''tenants_rentals.tenant_id already has an index''',
+              'CREATE INDEX `idx_tenants_rentals_tenant` ON `tenants_rentals` (`tenant_id`, `rental_id`)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- An earlier version of this script also made idx_users_roles_role (role_id, user_id), the same as
+-- FK_users_roles_role_id (role_id) of db.sql. It is dropped where that other index exists, the foreign key needs one
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'users_roles'
+                 AND index_name = 'idx_users_roles_role') > 0
+              AND (SELECT COUNT(*) FROM information_schema.statistics
+                   WHERE table_schema = DATABASE() AND table_name = 'users_roles'
+                     AND index_name <> 'idx_users_roles_role' AND column_name = 'role_id' AND seq_in_index = 1) > 0,
+              'DROP INDEX `idx_users_roles_role` ON `users_roles`',
+              'SELECT ''idx_users_roles_role is not dropped''');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
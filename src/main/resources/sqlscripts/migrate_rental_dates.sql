@@ -0,0 +1,74 @@
+-- -----------------------------------------------------
+-- Rental start and end dates as DATE columns
+-- Existing rows are stored as dd/MM/yyyy strings and are converted in place
+-- The old columns are only dropped once every row has been converted, a row that could not be is reported with
+-- an error and the script stops with both the old and the new columns in place, to be fixed by hand and run again
+-- Run it before the application is started on the new version. Running it again is harmless
+-- -----------------------------------------------------
+USE `startcode_v2` ;
+
+-- The columns the dates are converted into, unless start_date already is a DATE
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'rentals'
+                 AND ((column_name = 'start_date' AND data_type = 'date') OR column_name = 'start_date_new')) > 0,
+              'SELECT ''rentals.start_date_new is not added''',
+              'ALTER TABLE `rentals` ADD COLUMN `start_date_new` DATE NULL, ADD COLUMN `end_date_new` DATE NULL');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @converting = (SELECT COUNT(*) FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = 'rentals' AND column_name = 'start_date_new') > 0;
+
+SET @ddl = IF(@converting,
+              'UPDATE `rentals` SET `start_date_new` = STR_TO_DATE(`start_date`, ''%d/%m/%Y''), `end_date_new` = STR_TO_DATE(`end_date`, ''%d/%m/%Y'')',
+              'SELECT ''rentals dates are already converted''');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Rows whose dates did not convert, they would be lost with the old columns
+SET @ddl = IF(@converting,
+              'SELECT COUNT(*) INTO @unconverted FROM `rentals` WHERE `start_date_new` IS NULL OR `end_date_new` IS NULL',
+              'SET @unconverted = 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- SIGNAL can not be prepared, so it is called through a procedure that only lives while the script runs
+DROP PROCEDURE IF EXISTS `fail_unconverted_rental_dates`;
+CREATE PROCEDURE `fail_unconverted_rental_dates`()
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'rentals has dates that are not dd/MM/yyyy, see the rows where start_date_new or end_date_new is NULL';
+SET @ddl = IF(@unconverted > 0,
+              'CALL `fail_unconverted_rental_dates`()',
+              'SELECT ''rentals has no unconverted dates''');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+DROP PROCEDURE `fail_unconverted_rental_dates`;
+
+SET @ddl = IF(@converting AND @unconverted = 0,
+              'ALTER TABLE `rentals` DROP COLUMN `start_date`, DROP COLUMN `end_date`, CHANGE COLUMN `start_date_new` `start_date` DATE NOT NULL, CHANGE COLUMN `end_date_new` `end_date` DATE NOT NULL',
+              'SELECT ''rentals.start_date and end_date are not changed''');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Availability of one house, and rentals active on or ending around a date across all houses
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'rentals'
+                 AND index_name = 'idx_rentals_house_dates') > 0,
+              'SELECT ''idx_rentals_house_dates already exists''',
+              'CREATE INDEX `idx_rentals_house_dates` ON `rentals` (`houses_id`, `start_date`, `end_date`)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'rentals'
+                 AND index_name = 'idx_rentals_end_date') > 0,
+              'SELECT ''idx_rentals_end_date already exists''',
+              'CREATE INDEX `idx_rentals_end_date` ON `rentals` (`end_date`, `start_date`)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
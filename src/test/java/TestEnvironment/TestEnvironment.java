@@ -3,11 +3,14 @@ package TestEnvironment;
 import com.github.javafaker.Faker;
 import entities.*;
 import entities.Entity;
+import facades.RentalCalendar;
+import facades.RoleFacade;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import utils.EMF_Creator;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -47,6 +50,9 @@ public class TestEnvironment {
         } finally {
             em.close();
         }
+        emf.getCache().evictAll();
+        RentalCalendar.getCalendar(emf).clear();
+        RoleFacade.getFacade(emf).clear();
     }
 
     private void populateDatabase() {
@@ -151,8 +157,8 @@ public class TestEnvironment {
         List<Tenant> tenants = new ArrayList<>();
         tenants.add(createAndPersistTenant());
         return new Rental(
-                faker.bothify("1#/0#/200#"),
-                faker.bothify("1#/0#/201#"),
+                LocalDate.of(2000 + faker.number().numberBetween(0, 10), faker.number().numberBetween(1, 13), faker.number().numberBetween(10, 20)),
+                LocalDate.of(2010 + faker.number().numberBetween(0, 10), faker.number().numberBetween(1, 13), faker.number().numberBetween(10, 20)),
                 faker.number().randomDigit(),
                 faker.number().randomDigit(),
                 faker.name().firstName(),
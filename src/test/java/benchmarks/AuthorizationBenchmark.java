@@ -0,0 +1,160 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import rest.UserResource;
+import security.AccessRule;
+import security.UserPrincipal;
+
+import javax.annotation.security.DenyAll;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.core.SecurityContext;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Compares the per request authorization work of the old filters, which looked up the security annotations of the
+ * resource method and class by reflection on every request, with checking the AccessRule that SecurityFeature
+ * computes at startup. Both check an admin calling GET /api/users (@RolesAllowed("admin") on the method)
+ * and GET /api/users/me (@RolesAllowed({"user","admin"})).
+ *
+ * Run it like SerializationBenchmark, with benchmarks.AuthorizationBenchmark as the main class. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+    private static final List<Class<? extends Annotation>> SECURITY_ANNOTATIONS
+            = Arrays.asList(DenyAll.class, PermitAll.class, RolesAllowed.class);
+
+    private Method getAllUsers;
+    private Method getMe;
+    private AccessRule getAllUsersRule;
+    private AccessRule getMeRule;
+    private SecurityContext securityContext;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        getAllUsers = UserResource.class.getMethod("getAllUsers", Integer.class, Integer.class, boolean.class);
+        getMe = UserResource.class.getMethod("getMe");
+        getAllUsersRule = AccessRule.of(getAllUsers, UserResource.class);
+        getMeRule = AccessRule.of(getMe, UserResource.class);
+        securityContext = new AdminSecurityContext(new UserPrincipal("1", new String[]{"user", "admin"}));
+    }
+
+    @Benchmark
+    public boolean reflectionPerRequest() {
+        return authorizeByReflection(getAllUsers, UserResource.class)
+                & authorizeByReflection(getMe, UserResource.class);
+    }
+
+    @Benchmark
+    public boolean precomputedRule() {
+        return authorize(getAllUsersRule) & authorize(getMeRule);
+    }
+
+    private boolean authorize(AccessRule accessRule) {
+        if (!accessRule.isSecured()) {
+            return false;
+        }
+        accessRule.check(securityContext);
+        return true;
+    }
+
+    //What JWTAuthenticationFilter.isSecuredResource and RolesAllowedFilter.filter did before the rules were precomputed
+    private boolean authorizeByReflection(Method resourceMethod, Class<?> resourceClass) {
+        boolean secured = false;
+        for (Class<? extends Annotation> securityClass : SECURITY_ANNOTATIONS) {
+            if (resourceMethod.isAnnotationPresent(securityClass)) {
+                secured = true;
+            }
+        }
+        for (Class<? extends Annotation> securityClass : SECURITY_ANNOTATIONS) {
+            if (resourceClass.isAnnotationPresent(securityClass)) {
+                secured = true;
+            }
+        }
+        if (!secured) {
+            return false;
+        }
+
+        if (resourceMethod.isAnnotationPresent(DenyAll.class)) {
+            throw new IllegalStateException();
+        }
+        if (assertRole(resourceMethod.getAnnotation(RolesAllowed.class))) {
+            return true;
+        }
+        if (resourceMethod.isAnnotationPresent(PermitAll.class)) {
+            return true;
+        }
+        if (resourceClass.isAnnotationPresent(DenyAll.class)) {
+            throw new IllegalStateException();
+        }
+        assertRole(resourceClass.getAnnotation(RolesAllowed.class));
+        return true;
+    }
+
+    private boolean assertRole(RolesAllowed rolesAllowed) {
+        if (rolesAllowed != null) {
+            for (String role : rolesAllowed.value()) {
+                if (securityContext.isUserInRole(role)) {
+                    return true;
+                }
+            }
+            throw new IllegalStateException();
+        }
+        return false;
+    }
+
+    private static class AdminSecurityContext implements SecurityContext {
+        private final UserPrincipal user;
+
+        private AdminSecurityContext(UserPrincipal user) {
+            this.user = user;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return user;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return user.isUserInRole(role);
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return "JWT";
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorizationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,151 @@
+package benchmarks;
+
+import dtos.RentalDTO;
+import dtos.UserDTO;
+import entities.House;
+import entities.Rental;
+import entities.Role;
+import entities.Tenant;
+import entities.User;
+import facades.UserFacade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.ApiDateFormat;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Compares reading GET /api/users/me and GET /api/users/user-rentals the way they used to, loading the User and
+ * Rental entities and building the DTOs from them, with the column projections of UserFacade.getUserDTOById and
+ * UserFacade.getRentalDTOsByUserId. The user has 20 rentals.
+ * us/op is the score, allocated bytes/op is gc.alloc.rate.norm from the GC profiler.
+ *
+ * It writes to the test database (the puTest persistence unit), which has to be running.
+ * Run it like SerializationBenchmark, with benchmarks.ProjectionBenchmark as the main class. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    private static final int RENTALS = 20;
+
+    private EntityManagerFactory emf;
+    private UserFacade userFacade;
+    private int userId;
+
+    @Setup
+    public void setUp() throws Exception {
+        emf = EMF_Creator.createEntityManagerFactoryForTest();
+        userFacade = UserFacade.getFacade(emf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Role role = new Role("benchmark");
+            em.persist(role);
+            User user = new User("p" + Long.toString(System.currentTimeMillis() % 60466176, 36), "benchmark123", 30);
+            user.addRole(role);
+            em.persist(user);
+            Tenant tenant = new Tenant("Benchmark", 12345678, "Developer", user);
+            em.persist(tenant);
+            House house = new House("Benchmarkvej 2", "Lyngby", 4);
+            em.persist(house);
+            LocalDate start = LocalDate.of(1900, 1, 1);
+            for (int i = 0; i < RENTALS; i++) {
+                List<Tenant> tenants = new ArrayList<>();
+                tenants.add(tenant);
+                em.persist(new Rental(start.plusYears(i), start.plusYears(i).plusMonths(6), 120000, 30000,
+                        "Benchmark", house, tenants));
+            }
+            em.getTransaction().commit();
+            userId = user.getId();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public UserDTO meEntity() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            User user = em.find(User.class, userId);
+            return new UserDTO.Builder()
+                    .setId(user.getId())
+                    .setUsername(user.getUsername())
+                    .setAge(user.getAge())
+                    .setRoles(user.getRolesAsStringList())
+                    .build();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public UserDTO meProjection() {
+        return userFacade.getUserDTOById(userId);
+    }
+
+    @Benchmark
+    public List<RentalDTO> userRentalsEntity() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Rental> rentals = em.createQuery("SELECT r FROM Rental r JOIN r.tenants t JOIN t.user u " +
+                    "WHERE u.id=:user_id", Rental.class)
+                    .setParameter("user_id", userId)
+                    .getResultList();
+            List<RentalDTO> rentalDTOs = new ArrayList<>();
+            for (Rental rental : rentals) {
+                rentalDTOs.add(new RentalDTO.Builder()
+                        .setId(rental.getId())
+                        .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                        .setEndDate(ApiDateFormat.format(rental.getEndDate()))
+                        .setPriceAnnual(rental.getPriceAnnual())
+                        .setDeposit(rental.getDeposit())
+                        .setContactPerson(rental.getContactPerson())
+                        .setHouseId(rental.getHouse().getId())
+                        .build());
+            }
+            return rentalDTOs;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<RentalDTO> userRentalsProjection() {
+        return userFacade.getRentalDTOsByUserId(userId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,146 @@
+package benchmarks;
+
+import dtos.RentalDTO;
+import entities.House;
+import entities.Rental;
+import entities.Tenant;
+import entities.User;
+import facades.HouseFacade;
+import facades.TenantFacade;
+import facades.UserFacade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.ApiDateFormat;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Compares creating 100 rentals the way POST /api/users/rentals does it, one rental at a time with the house and
+ * every tenant read in an EntityManager of their own, with one call of UserFacade.createRentals like
+ * POST /api/users/rentals/batch. Every rental has two tenants and a period of its own, so none of them overlap.
+ *
+ * It writes to the test database (the puTest persistence unit), which has to be running.
+ * Run it like SerializationBenchmark, with benchmarks.RentalBatchBenchmark as the main class. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalBatchBenchmark {
+    private static final int RENTALS = 100;
+    private static final int TENANTS = 20;
+
+    private EntityManagerFactory emf;
+    private UserFacade userFacade;
+    private HouseFacade houseFacade;
+    private TenantFacade tenantFacade;
+    private int houseId;
+    private final List<Integer> tenantIds = new ArrayList<>();
+    private LocalDate nextStartDate = LocalDate.of(2000, 1, 1);
+
+    @Setup
+    public void setUp() throws Exception {
+        emf = EMF_Creator.createEntityManagerFactoryForTest();
+        userFacade = UserFacade.getFacade(emf);
+        houseFacade = HouseFacade.getFacade(emf);
+        tenantFacade = TenantFacade.getFacade(emf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            House house = new House("Benchmarkvej 1", "Lyngby", 4);
+            em.persist(house);
+            User user = new User("benchmark", "benchmark123", 30);
+            em.persist(user);
+            List<Tenant> tenants = new ArrayList<>();
+            for (int i = 0; i < TENANTS; i++) {
+                Tenant tenant = new Tenant("Tenant " + i, 12345678, "Developer", user);
+                em.persist(tenant);
+                tenants.add(tenant);
+            }
+            em.getTransaction().commit();
+            houseId = house.getId();
+            tenants.forEach(tenant -> tenantIds.add(tenant.getId()));
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int onePerRequest() throws Exception {
+        int created = 0;
+        for (RentalDTO rentalDTO : createRentalDTOs()) {
+            House house = houseFacade.getHouseById(rentalDTO.getHouseId());
+            List<Tenant> tenants = new ArrayList<>();
+            for (Integer tenantId : rentalDTO.getTenantIds()) {
+                tenants.add(tenantFacade.getTenantById(tenantId));
+            }
+            Rental rental = new Rental(
+                    ApiDateFormat.parse(rentalDTO.getStartDate()),
+                    ApiDateFormat.parse(rentalDTO.getEndDate()),
+                    rentalDTO.getPriceAnnual(),
+                    rentalDTO.getDeposit(),
+                    rentalDTO.getContactPerson(),
+                    house,
+                    tenants);
+            userFacade.createRental(rental);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    public int batch() throws Exception {
+        return userFacade.createRentals(createRentalDTOs()).size();
+    }
+
+    private List<RentalDTO> createRentalDTOs() {
+        List<RentalDTO> rentalDTOs = new ArrayList<>(RENTALS);
+        for (int i = 0; i < RENTALS; i++) {
+            List<Integer> rentalTenantIds = new ArrayList<>();
+            rentalTenantIds.add(tenantIds.get(i % TENANTS));
+            rentalTenantIds.add(tenantIds.get((i + 1) % TENANTS));
+            rentalDTOs.add(new RentalDTO.Builder()
+                    .setStartDate(ApiDateFormat.format(nextStartDate))
+                    .setEndDate(ApiDateFormat.format(nextStartDate.plusDays(1)))
+                    .setPriceAnnual(120000)
+                    .setDeposit(30000)
+                    .setContactPerson("Benchmark")
+                    .setHouseId(houseId)
+                    .setTenantIds(rentalTenantIds)
+                    .build());
+            nextStartDate = nextStartDate.plusDays(2);
+        }
+        return rentalDTOs;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RentalBatchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,115 @@
+package benchmarks;
+
+import entities.House;
+import entities.Rental;
+import entities.Tenant;
+import entities.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Imports 100k rentals, each with one tenant, the way a data import or seeding would: persisted in transactions
+ * of 1000 rentals with the EntityManager cleared between them. One operation is one rental, so the score is
+ * rentals inserted per second.
+ *
+ * It writes to the test database (the puTest persistence unit), which has to be running.
+ * Run it like SerializationBenchmark, with benchmarks.RentalImportBenchmark as the main class. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalImportBenchmark {
+    private static final int RENTALS = 100_000;
+    private static final int RENTALS_PER_TRANSACTION = 1000;
+    private static final int TENANTS = 20;
+
+    private EntityManagerFactory emf;
+    private int houseId;
+    private final List<Integer> tenantIds = new ArrayList<>();
+    private LocalDate nextStartDate = LocalDate.of(1000, 1, 1);
+
+    @Setup
+    public void setUp() throws Exception {
+        emf = EMF_Creator.createEntityManagerFactoryForTest();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            House house = new House("Benchmarkvej 3", "Lyngby", 4);
+            em.persist(house);
+            User user = new User("i" + Long.toString(System.currentTimeMillis() % 60466176, 36), "benchmark123", 30);
+            em.persist(user);
+            List<Tenant> tenants = new ArrayList<>();
+            for (int i = 0; i < TENANTS; i++) {
+                Tenant tenant = new Tenant("Tenant " + i, 12345678, "Developer", user);
+                em.persist(tenant);
+                tenants.add(tenant);
+            }
+            em.getTransaction().commit();
+            houseId = house.getId();
+            for (Tenant tenant : tenants) {
+                tenantIds.add(tenant.getId());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RENTALS)
+    public int importRentals() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int from = 0; from < RENTALS; from += RENTALS_PER_TRANSACTION) {
+                em.getTransaction().begin();
+                House house = em.getReference(House.class, houseId);
+                for (int i = from; i < from + RENTALS_PER_TRANSACTION; i++) {
+                    List<Tenant> tenants = new ArrayList<>();
+                    tenants.add(em.getReference(Tenant.class, tenantIds.get(i % TENANTS)));
+                    em.persist(new Rental(nextStartDate, nextStartDate.plusDays(1), 120000, 30000, "Import",
+                            house, tenants));
+                    nextStartDate = nextStartDate.plusDays(2);
+                }
+                em.getTransaction().commit();
+                em.clear();
+            }
+            return RENTALS;
+        } finally {
+            em.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RentalImportBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,134 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dtos.HouseDTO;
+import dtos.RentalDTO;
+import dtos.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.GsonRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Compares the reflective, pretty printing Gson the resources used to have with GsonRegistry.COMPACT,
+ * serializing a page of rentals and a page of users like GET /api/rentals and GET /api/users do.
+ * ns/op is the score, allocated bytes/op is gc.alloc.rate.norm from the GC profiler, and the size of the
+ * response bodies is printed before the run.
+ *
+ * Run it with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt -Dmdep.includeScope=test
+ *   java -cp target/test-classes:target/classes:$(cat target/classpath.txt) benchmarks.SerializationBenchmark */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private final Gson reflectivePretty = new GsonBuilder().setPrettyPrinting().create();
+    private final Gson registryCompact = GsonRegistry.COMPACT;
+
+    private List<RentalDTO> rentals;
+    private List<UserDTO> users;
+
+    @Setup
+    public void setUp() {
+        rentals = createRentals();
+        users = createUsers();
+    }
+
+    @Benchmark
+    public String rentalsReflectivePretty() {
+        return reflectivePretty.toJson(rentals);
+    }
+
+    @Benchmark
+    public String rentalsRegistryCompact() {
+        return registryCompact.toJson(rentals);
+    }
+
+    @Benchmark
+    public String usersReflectivePretty() {
+        return reflectivePretty.toJson(users);
+    }
+
+    @Benchmark
+    public String usersRegistryCompact() {
+        return registryCompact.toJson(users);
+    }
+
+    private static List<RentalDTO> createRentals() {
+        List<RentalDTO> rentals = new ArrayList<>();
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            rentals.add(new RentalDTO.Builder()
+                    .setId(i)
+                    .setStartDate("2022-01-01")
+                    .setEndDate("2022-12-31")
+                    .setPriceAnnual(120000 + i)
+                    .setDeposit(30000)
+                    .setContactPerson("Contact Person " + i)
+                    .setHouse(new HouseDTO.Builder()
+                            .setId(i)
+                            .setAddress("Street " + i)
+                            .setCity("Copenhagen")
+                            .setNumberOfRooms(3)
+                            .build())
+                    .setTenantIds(Arrays.asList(i, i + 1, i + 2))
+                    .build());
+        }
+        return rentals;
+    }
+
+    private static List<UserDTO> createUsers() {
+        List<UserDTO> users = new ArrayList<>();
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            users.add(new UserDTO.Builder()
+                    .setId(i)
+                    .setUsername("user" + i)
+                    .setAge(20 + i % 50)
+                    .setRoles(Arrays.asList("user", "tenant"))
+                    .build());
+        }
+        return users;
+    }
+
+    private static int bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        SerializationBenchmark benchmark = new SerializationBenchmark();
+        benchmark.setUp();
+        System.out.println("Response body for " + PAGE_SIZE + " rentals: "
+                + bytes(benchmark.rentalsReflectivePretty()) + " bytes reflective/pretty, "
+                + bytes(benchmark.rentalsRegistryCompact()) + " bytes registry/compact");
+        System.out.println("Response body for " + PAGE_SIZE + " users: "
+                + bytes(benchmark.usersReflectivePretty()) + " bytes reflective/pretty, "
+                + bytes(benchmark.usersRegistryCompact()) + " bytes registry/compact");
+
+        new Runner(new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import entities.Role;
+import entities.User;
+import facades.UserFacade;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Compares UserFacade.createUser, which leaves the username check to the unique constraint, with counting the
+ * users with the username first like createUser used to, from 8 threads signing up at the same time.
+ * The password is hashed once in setUp, so the score is the database work of a sign-up and not BCrypt.
+ *
+ * It writes to the test database (the puTest persistence unit), which has to be running.
+ * Run it like SerializationBenchmark, with benchmarks.SignUpBenchmark as the main class. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SignUpBenchmark {
+    private final AtomicLong nextUsername = new AtomicLong();
+
+    private EntityManagerFactory emf;
+    private UserFacade userFacade;
+    private String hashedPassword;
+    private Role role;
+    //Keeps the usernames of one run apart from the ones earlier runs left in the database
+    private String usernamePrefix;
+
+    @Setup
+    public void setUp() {
+        emf = EMF_Creator.createEntityManagerFactoryForTest();
+        userFacade = UserFacade.getFacade(emf);
+        hashedPassword = BCrypt.hashpw("benchmark123", BCrypt.gensalt());
+        usernamePrefix = "s" + Long.toString(System.currentTimeMillis() % 60466176, 36) + "_";
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            role = new Role("benchmark");
+            em.persist(role);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public User uniqueConstraint() throws Exception {
+        return userFacade.createUser(createUser());
+    }
+
+    @Benchmark
+    public User countThenCreate() throws Exception {
+        User user = createUser();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.createQuery("SELECT count(u) FROM User u WHERE u.username =:username", Long.class)
+                    .setParameter("username", user.getUsername())
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+        return userFacade.createUser(user);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername(usernamePrefix + Long.toString(nextUsername.incrementAndGet(), 36));
+        user.setPassword(hashedPassword);
+        user.setAge(30);
+        user.addRole(role);
+        return user;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SignUpBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
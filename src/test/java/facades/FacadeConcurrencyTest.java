@@ -0,0 +1,130 @@
+package facades;
+
+import TestEnvironment.TestEnvironment;
+import entities.House;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.junit.jupiter.api.Test;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FacadeConcurrencyTest extends TestEnvironment {
+    private static final int THREADS = 32;
+
+    @Test
+    public void getFacadeFromManyThreadsTest() throws Exception {
+        //Factories no facade has been created for yet, like the first requests after a start
+        EntityManagerFactory emfA = EMF_Creator.createEntityManagerFactoryForTest();
+        EntityManagerFactory emfB = EMF_Creator.createEntityManagerFactoryForTest();
+        try {
+            List<Object[]> facadesA = new ArrayList<>();
+            List<Object[]> facadesB = new ArrayList<>();
+
+            List<Object[]> results = runAtOnce(THREADS, thread -> {
+                EntityManagerFactory factory = thread % 2 == 0 ? emfA : emfB;
+                return new Object[]{
+                        UserFacade.getFacade(factory),
+                        RoleFacade.getFacade(factory),
+                        HouseFacade.getFacade(factory),
+                        RentalFacade.getFacade(factory),
+                        TenantFacade.getFacade(factory)};
+            });
+            for (int thread = 0; thread < THREADS; thread++) {
+                (thread % 2 == 0 ? facadesA : facadesB).add(results.get(thread));
+            }
+
+            for (int facade = 0; facade < 5; facade++) {
+                for (Object[] facades : facadesA) {
+                    assertSame(facadesA.get(0)[facade], facades[facade]);
+                }
+                for (Object[] facades : facadesB) {
+                    assertSame(facadesB.get(0)[facade], facades[facade]);
+                }
+                assertNotSame(facadesA.get(0)[facade], facadesB.get(0)[facade]);
+            }
+            assertSame(HouseFacade.getFacade(emfA), facadesA.get(0)[2]);
+        } finally {
+            emfA.close();
+            emfB.close();
+        }
+    }
+
+    @Test
+    public void useFacadesFromManyThreadsTest() throws Exception {
+        House house = createAndPersistHouse();
+        EntityManagerFactory fresh = EMF_Creator.createEntityManagerFactoryForTest();
+        try {
+            List<House> houses = runAtOnce(THREADS, thread -> HouseFacade.getFacade(fresh).getHouseById(house.getId()));
+
+            for (House found : houses) {
+                assertEquals(house.getId(), found.getId());
+            }
+        } finally {
+            fresh.close();
+        }
+    }
+
+    @Test
+    public void facadesOfClosedFactoryAreDroppedTest() {
+        FacadeInstances<Object> instances = new FacadeInstances<>(factory -> new Object());
+        EntityManagerFactory closed = EMF_Creator.createEntityManagerFactoryForTest();
+        instances.get(closed);
+        closed.close();
+
+        instances.get(emf);
+
+        assertEquals(1, instances.size());
+    }
+
+    @Test
+    public void persistFromManyThreadsTest() throws Exception {
+        //Every thread takes its ids from the same preallocated blocks, read on the sequence pool
+        List<Integer> ids = runAtOnce(THREADS, thread -> persist(new House("Vej " + thread, "Lyngby", 2)).getId());
+
+        assertEquals(THREADS, new HashSet<>(ids).size());
+        assertTrue(JpaHelper.getDatabaseSession(emf).getSequencingControl().isConnectedUsingSeparateConnection());
+    }
+
+    //Starts the task on every thread at the same moment and returns the results in thread order
+    private static <T> List<T> runAtOnce(int threads, Task<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit((Callable<T>) () -> {
+                    ready.countDown();
+                    start.await();
+                    return task.run(threadNumber);
+                }));
+            }
+            ready.await();
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Task<T> {
+        T run(int thread) throws Exception;
+    }
+}
@@ -1,12 +1,19 @@
 package facades;
 
 import TestEnvironment.TestEnvironment;
+import dtos.AvailabilityDTO;
 import entities.House;
+import entities.Rental;
+import org.eclipse.persistence.jpa.JpaHelper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import utils.CacheStatistics;
+import utils.TableVersions;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +39,19 @@ public class HouseFacadeTest extends TestEnvironment {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void getHouseByIdIsServedFromSharedCacheTest() {
+        House house = createAndPersistHouse();
+        CacheStatistics statistics = CacheStatistics.forSession(JpaHelper.getServerSession(emf));
+        facade.getHouseById(house.getId());
+        long hitsBefore = statistics.getHits(House.class);
+
+        facade.getHouseById(house.getId());
+
+        assertTrue(emf.getCache().contains(House.class, house.getId()));
+        assertEquals(hitsBefore + 1, statistics.getHits(House.class));
+    }
+
     @Test
     public void getHouseByNonExistingIdTest() {
         assertThrows(EntityNotFoundException.class,()-> facade.getHouseById(nonExistingId));
@@ -54,4 +74,106 @@ public class HouseFacadeTest extends TestEnvironment {
     public void getAllHousesWithNothingTest() {
         assertDoesNotThrow(()-> facade.getAllHouses());
     }
+
+    @Test
+    public void getHousesAfterIdTest() {
+        House houseA = createAndPersistHouse();
+        House houseB = createAndPersistHouse();
+        House houseC = createAndPersistHouse();
+
+        List<House> actual = facade.getHouses(houseA.getId(), 10, null);
+
+        assertEquals(2, actual.size());
+        assertEquals(houseB, actual.get(0));
+        assertEquals(houseC, actual.get(1));
+    }
+
+    @Test
+    public void getHousesWithLimitTest() {
+        House houseA = createAndPersistHouse();
+        createAndPersistHouse();
+
+        List<House> actual = facade.getHouses(null, 1, null);
+
+        assertEquals(1, actual.size());
+        assertEquals(houseA, actual.get(0));
+    }
+
+    @Test
+    public void getHousesByCityTest() {
+        House expected = (House) persist(new House(faker.address().streetAddress(), "Roskilde", 3));
+        createAndPersistHouse();
+
+        List<House> actual = facade.getHouses(null, 10, "Roskilde");
+
+        assertEquals(1, actual.size());
+        assertEquals(expected, actual.get(0));
+    }
+
+    @Test
+    public void getAvailabilityTest() {
+        Rental rentalA = createRental();
+        rentalA.setStartDate(LocalDate.of(2022, 3, 1));
+        rentalA.setEndDate(LocalDate.of(2022, 5, 31));
+        persist(rentalA);
+        Rental rentalB = createRental();
+        rentalB.setHouse(rentalA.getHouse());
+        rentalB.setStartDate(LocalDate.of(2022, 9, 1));
+        rentalB.setEndDate(LocalDate.of(2023, 8, 31));
+        persist(rentalB);
+
+        AvailabilityDTO actual = facade.getAvailability(rentalA.getHouse().getId(),
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+
+        assertFalse(actual.getAvailable());
+        assertEquals(2, actual.getRented().size());
+        assertEquals(rentalA.getId(), actual.getRented().get(0).getRentalId());
+        assertEquals(rentalB.getId(), actual.getRented().get(1).getRentalId());
+        assertEquals(2, actual.getFree().size());
+        assertEquals("01/01/2022", actual.getFree().get(0).getStartDate());
+        assertEquals("28/02/2022", actual.getFree().get(0).getEndDate());
+        assertEquals("01/06/2022", actual.getFree().get(1).getStartDate());
+        assertEquals("31/08/2022", actual.getFree().get(1).getEndDate());
+    }
+
+    @Test
+    public void getAvailabilityOfFreeHouseTest() {
+        House house = createAndPersistHouse();
+
+        AvailabilityDTO actual = facade.getAvailability(house.getId(), LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 1));
+
+        assertTrue(actual.getAvailable());
+        assertTrue(actual.getRented().isEmpty());
+        assertEquals(1, actual.getFree().size());
+    }
+
+    @Test
+    public void getAvailabilityOfNonExistingHouseTest() {
+        assertThrows(EntityNotFoundException.class,
+                ()-> facade.getAvailability(nonExistingId, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31)));
+    }
+
+    @Test
+    public void committedChangesAreCountedTest() {
+        long before = TableVersions.getVersion(House.class);
+
+        createAndPersistHouse();
+        assertEquals(before + 1, TableVersions.getVersion(House.class));
+
+        //One commit is counted once, however many houses it writes
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(createHouse());
+            em.persist(createHouse());
+            em.getTransaction().commit();
+
+            em.getTransaction().begin();
+            em.persist(createHouse());
+            em.getTransaction().rollback();
+        } finally {
+            em.close();
+        }
+        assertEquals(before + 2, TableVersions.getVersion(House.class));
+    }
 }
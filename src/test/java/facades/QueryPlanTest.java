@@ -0,0 +1,112 @@
+package facades;
+
+import TestEnvironment.TestEnvironment;
+import entities.Rental;
+import entities.Tenant;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.jpa.JpaQuery;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.DatabaseRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/* Runs EXPLAIN on the SQL EclipseLink generates for the queries of UserFacade and RoleFacade that go through the
+ * join tables, and checks that every table on the way is read by the index meant for it.
+ * MySQL answers EXPLAIN with a row per table and the index it reads that table by in "key". */
+public class QueryPlanTest extends TestEnvironment {
+    private static final Pattern FROM_TABLE = Pattern.compile("(\\w+) (t\\d+)");
+
+    private Rental rental;
+    private Tenant tenant;
+    private Tenant otherTenant;
+
+    @BeforeEach
+    void setUp() {
+        //Enough rows that reading a table through an index beats reading all of it
+        for (int i = 0; i < 20; i++) {
+            rental = createAndPersistRental();
+            if (otherTenant == null) {
+                otherTenant = rental.getTenants().get(0);
+            }
+        }
+        tenant = rental.getTenants().get(0);
+    }
+
+    @Test
+    public void rentalsByUserIdUseIndexesTest() throws Exception {
+        Map<String, String> indexes = getIndexesUsed(UserFacade.RENTALS_BY_USER_ID, tenant.getUser().getId());
+
+        assertEquals("idx_tenants_user", indexes.get("tenants"));
+        assertEquals("idx_tenants_rentals_tenant", indexes.get("tenants_rentals"));
+        assertPrimaryKey(indexes, "rentals");
+    }
+
+    @Test
+    public void tenantsByHouseIdUseIndexesTest() throws Exception {
+        Map<String, String> indexes = getIndexesUsed(UserFacade.TENANTS_BY_HOUSE_ID, rental.getHouse().getId());
+
+        //idx_rentals_house_dates, or an index of the houses_id foreign key where the database made one of its own
+        assertNotNull(indexes.get("rentals"), "rentals is read without an index");
+        assertFalse(indexes.get("rentals").startsWith("primary"));
+        assertPrimaryKey(indexes, "tenants_rentals");
+        assertPrimaryKey(indexes, "tenants");
+    }
+
+    @Test
+    public void roleIdsByUserIdsUseIndexesTest() throws Exception {
+        Map<String, String> indexes = getIndexesUsed(RoleFacade.ROLE_IDS_BY_USER_IDS,
+                Arrays.asList(tenant.getUser().getId(), otherTenant.getUser().getId()));
+
+        assertPrimaryKey(indexes, "users");
+        assertPrimaryKey(indexes, "users_roles");
+    }
+
+    private static void assertPrimaryKey(Map<String, String> indexes, String table) {
+        String index = indexes.get(table);
+        assertTrue(index != null && index.startsWith("primary"), table + " is read by " + index);
+    }
+
+    //The index used for each table of the query, lower case, null for a table that is read in full
+    private Map<String, String> getIndexesUsed(String jpql, Object parameter) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        try {
+            DatabaseQuery query = em.createQuery(jpql).unwrap(JpaQuery.class).getDatabaseQuery();
+            DatabaseRecord arguments = new DatabaseRecord();
+            arguments.put(query.getArguments().get(0), parameter);
+            String sql = query.getTranslatedSQLString(em.unwrap(JpaEntityManager.class).getActiveSession(), arguments);
+
+            Map<String, String> tablesByAlias = new HashMap<>();
+            Matcher from = FROM_TABLE.matcher(sql.substring(sql.indexOf(" FROM "), sql.indexOf(" WHERE ")));
+            while (from.find()) {
+                tablesByAlias.put(from.group(2).toLowerCase(), from.group(1).toLowerCase());
+            }
+
+            Map<String, String> indexes = new HashMap<>();
+            em.getTransaction().begin();
+            try (Statement statement = em.unwrap(Connection.class).createStatement();
+                 ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+                while (plan.next()) {
+                    indexes.put(tablesByAlias.get(plan.getString("table").toLowerCase()),
+                            plan.getString("key") == null ? null : plan.getString("key").toLowerCase());
+                }
+            } finally {
+                em.getTransaction().rollback();
+            }
+            return indexes;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package facades;
+
+import TestEnvironment.TestEnvironment;
+import entities.House;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/* The test database is the primary and a second database the replica. Nothing is replicated between them,
+ * so the houses a read finds tell which of the two it went to */
+public class ReadReplicaTest extends TestEnvironment {
+    private static EntityManagerFactory replica;
+
+    private HouseFacade facade;
+    private House primaryHouse;
+    private House replicaHouse;
+
+    @BeforeAll
+    public static void setUpReplica() {
+        replica = EMF_Creator.createReadReplicaForTest(emf);
+    }
+
+    @AfterAll
+    public static void tearDownReplica() {
+        replica.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        facade = HouseFacade.getFacade(emf);
+        primaryHouse = createAndPersistHouse();
+
+        EntityManager em = replica.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM House").executeUpdate();
+            replicaHouse = createHouse();
+            em.persist(replicaHouse);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        ReadReplicas.register(emf, replica, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        UnitOfWork.end();
+        ReadReplicas.unregister(emf);
+    }
+
+    @Test
+    public void readOnlyMethodReadsFromReplicaTest() {
+        assertEquals(getAddresses(replicaHouse), getAddresses(facade.getAllHouses()));
+    }
+
+    @Test
+    public void findByIdReadsFromPrimaryTest() {
+        assertEquals(primaryHouse.getAddress(), facade.getHouseById(primaryHouse.getId()).getAddress());
+    }
+
+    @Test
+    public void readsFromPrimaryAfterWriteInUnitOfWorkTest() {
+        UnitOfWork.begin();
+        assertEquals(getAddresses(replicaHouse), getAddresses(facade.getAllHouses()));
+
+        House house = createHouse();
+        UnitOfWork.inTransaction(emf, em -> {
+            em.persist(house);
+            return house;
+        });
+
+        assertEquals(getAddresses(primaryHouse, house), getAddresses(facade.getAllHouses()));
+    }
+
+    @Test
+    public void readFromPrimaryTest() {
+        UnitOfWork.begin();
+        UnitOfWork.readFromPrimary();
+
+        assertEquals(getAddresses(primaryHouse), getAddresses(facade.getAllHouses()));
+    }
+
+    @Test
+    public void readsFromPrimaryWithinMaxLagTest() {
+        ReadReplicas.register(emf, replica, 60_000);
+
+        //A commit on the primary outside of any unit of work
+        createAndPersistHouse();
+
+        assertEquals(2, facade.getAllHouses().size());
+    }
+
+    private static Set<String> getAddresses(House... houses) {
+        Set<String> addresses = new HashSet<>();
+        for (House house : houses) {
+            addresses.add(house.getAddress());
+        }
+        return addresses;
+    }
+
+    private static Set<String> getAddresses(List<House> houses) {
+        return getAddresses(houses.toArray(new House[0]));
+    }
+}
@@ -0,0 +1,94 @@
+package facades;
+
+import TestEnvironment.TestEnvironment;
+import entities.House;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RentalCalendarTest extends TestEnvironment {
+    private RentalCalendar.HouseCalendar calendar;
+
+    @BeforeEach
+    public void setUp() {
+        House house = createAndPersistHouse();
+        calendar = RentalCalendar.getCalendar(emf).getHouseCalendar(house.getId());
+    }
+
+    @Test
+    public void longestDaysShrinksWhenLongestPeriodIsRemovedTest() {
+        calendar.add(new RentalCalendar.Period(1, LocalDate.of(2020, 1, 1), LocalDate.of(2029, 12, 31)));
+        calendar.add(new RentalCalendar.Period(2, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31)));
+        calendar.add(new RentalCalendar.Period(3, LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 28)));
+
+        calendar.remove(1);
+
+        assertEquals(30, calendar.getLongestDays());
+        assertNull(calendar.findOverlap(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null));
+    }
+
+    @Test
+    public void longestDaysShrinksWhenLongestPeriodIsShortenedTest() {
+        calendar.add(new RentalCalendar.Period(1, LocalDate.of(2020, 1, 1), LocalDate.of(2029, 12, 31)));
+
+        calendar.add(new RentalCalendar.Period(1, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 11)));
+
+        assertEquals(10, calendar.getLongestDays());
+        assertEquals(1, calendar.size());
+    }
+
+    @Test
+    public void longestDaysKeepsPeriodsOfSameLengthTest() {
+        calendar.add(new RentalCalendar.Period(1, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 11)));
+        calendar.add(new RentalCalendar.Period(2, LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 11)));
+
+        calendar.remove(1);
+
+        assertEquals(10, calendar.getLongestDays());
+        assertEquals(2, calendar.findOverlap(LocalDate.of(2030, 2, 11), LocalDate.of(2030, 2, 20), null).getRentalId());
+    }
+
+    //The end date is the last day of the rental, the next one starts the day after
+    @Test
+    public void periodsIncludeTheirEndDateTest() {
+        calendar.add(new RentalCalendar.Period(1, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31)));
+
+        assertNotNull(calendar.findOverlap(LocalDate.of(2030, 1, 31), LocalDate.of(2030, 2, 28), null));
+        assertNull(calendar.findOverlap(LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 28), null));
+    }
+
+    @Test
+    public void factoriesOfOneUnitShareCalendarTest() {
+        EntityManagerFactory other = EMF_Creator.createEntityManagerFactoryForTest();
+        try {
+            assertSame(RentalCalendar.getCalendar(emf), RentalCalendar.getCalendar(other));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void otherDatabaseHasCalendarOfItsOwnTest() {
+        EntityManagerFactory replica = EMF_Creator.createReadReplicaForTest(emf);
+        RentalCalendar replicaCalendar;
+        try {
+            replicaCalendar = RentalCalendar.getCalendar(replica);
+            assertNotSame(RentalCalendar.getCalendar(emf), replicaCalendar);
+        } finally {
+            replica.close();
+        }
+
+        //Dropped with the session, a new factory of that database starts over
+        EntityManagerFactory reopened = EMF_Creator.createReadReplicaForTest(emf);
+        try {
+            assertNotSame(replicaCalendar, RentalCalendar.getCalendar(reopened));
+        } finally {
+            reopened.close();
+        }
+    }
+}
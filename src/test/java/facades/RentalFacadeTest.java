@@ -1,11 +1,15 @@
 package facades;
 
 import TestEnvironment.TestEnvironment;
+import dtos.RentalDTO;
 import entities.Rental;
+import entities.Tenant;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,4 +57,128 @@ public class RentalFacadeTest extends TestEnvironment {
     public void getAllRentalsWithNothingTest() {
         assertDoesNotThrow(()-> facade.getAllRentals());
     }
+
+    @Test
+    public void getAllRentalDTOsTest() {
+        Rental rentalA = createAndPersistRental();
+        Rental rentalB = createAndPersistRental();
+        Tenant tenant = createAndPersistTenant();
+        rentalB.getTenants().add(tenant);
+        update(rentalB);
+
+        List<RentalDTO> actual = facade.getRentalDTOs(null, 10, null);
+
+        assertEquals(2, actual.size());
+        RentalDTO actualA = actual.get(0);
+        RentalDTO actualB = actual.get(1);
+        assertEquals(rentalA.getId(), actualA.getId());
+        assertEquals(rentalA.getContactPerson(), actualA.getContactPerson());
+        assertEquals(rentalA.getHouse().getId(), actualA.getHouse().getId());
+        assertEquals(rentalA.getTenantIds(), actualA.getTenantIds());
+        assertEquals(2, actualB.getTenantIds().size());
+        assertTrue(actualB.getTenantIds().contains(tenant.getId()));
+    }
+
+    @Test
+    public void getAllRentalDTOsWithNothingTest() {
+        assertTrue(facade.getRentalDTOs(null, 10, null).isEmpty());
+    }
+
+    @Test
+    public void getRentalDTOsAfterIdTest() {
+        Rental rentalA = createAndPersistRental();
+        Rental rentalB = createAndPersistRental();
+        Rental rentalC = createAndPersistRental();
+
+        List<RentalDTO> actual = facade.getRentalDTOs(rentalA.getId(), 1, null);
+
+        assertEquals(1, actual.size());
+        assertEquals(rentalB.getId(), actual.get(0).getId());
+        assertEquals(rentalC.getTenantIds(), facade.getRentalDTOs(rentalB.getId(), 1, null).get(0).getTenantIds());
+    }
+
+    @Test
+    public void getRentalDTOsByHouseIdTest() {
+        createAndPersistRental();
+        Rental expected = createAndPersistRental();
+
+        List<RentalDTO> actual = facade.getRentalDTOs(null, 10, expected.getHouse().getId());
+
+        assertEquals(1, actual.size());
+        assertEquals(expected.getId(), actual.get(0).getId());
+    }
+
+    @Test
+    public void streamRentalDTOsTest() {
+        Rental rentalA = createAndPersistRental();
+        Rental rentalB = createAndPersistRental();
+        Tenant tenant = createAndPersistTenant();
+        rentalA.getTenants().add(tenant);
+        update(rentalA);
+        List<RentalDTO> actual = new ArrayList<>();
+
+        facade.streamRentalDTOs(null, null, actual::add);
+
+        assertEquals(2, actual.size());
+        assertEquals(rentalA.getId(), actual.get(0).getId());
+        assertEquals(2, actual.get(0).getTenantIds().size());
+        assertTrue(actual.get(0).getTenantIds().contains(tenant.getId()));
+        assertEquals(rentalB.getId(), actual.get(1).getId());
+        assertEquals(rentalB.getTenantIds(), actual.get(1).getTenantIds());
+        assertEquals(rentalB.getHouse().getId(), actual.get(1).getHouse().getId());
+    }
+
+    @Test
+    public void streamRentalDTOsAfterIdTest() {
+        Rental rentalA = createAndPersistRental();
+        Rental rentalB = createAndPersistRental();
+        List<RentalDTO> actual = new ArrayList<>();
+
+        facade.streamRentalDTOs(rentalA.getId(), null, actual::add);
+
+        assertEquals(1, actual.size());
+        assertEquals(rentalB.getId(), actual.get(0).getId());
+    }
+
+    @Test
+    public void getRentalDTOsActiveOnTest() {
+        Rental active = createRental();
+        active.setStartDate(LocalDate.of(2022, 1, 1));
+        active.setEndDate(LocalDate.of(2022, 12, 31));
+        persist(active);
+        Rental endsOnDate = createRental();
+        endsOnDate.setStartDate(LocalDate.of(2021, 6, 1));
+        endsOnDate.setEndDate(LocalDate.of(2022, 6, 1));
+        persist(endsOnDate);
+        Rental ended = createRental();
+        ended.setStartDate(LocalDate.of(2021, 1, 1));
+        ended.setEndDate(LocalDate.of(2022, 5, 31));
+        persist(ended);
+
+        List<RentalDTO> actual = facade.getRentalDTOsActiveOn(LocalDate.of(2022, 6, 1), null);
+
+        assertEquals(2, actual.size());
+        assertEquals(endsOnDate.getId(), actual.get(0).getId());
+        assertEquals("01/06/2022", actual.get(0).getEndDate());
+        assertEquals(active.getId(), actual.get(1).getId());
+        assertEquals(1, facade.getRentalDTOsActiveOn(LocalDate.of(2022, 6, 1), active.getHouse().getId()).size());
+    }
+
+    @Test
+    public void getRentalDTOsEndingWithinTest() {
+        Rental endingSoon = createRental();
+        endingSoon.setStartDate(LocalDate.of(2022, 1, 1));
+        endingSoon.setEndDate(LocalDate.of(2022, 7, 1));
+        persist(endingSoon);
+        Rental endingLater = createRental();
+        endingLater.setStartDate(LocalDate.of(2022, 1, 1));
+        endingLater.setEndDate(LocalDate.of(2022, 8, 1));
+        persist(endingLater);
+
+        List<RentalDTO> actual = facade.getRentalDTOsEndingWithin(LocalDate.of(2022, 6, 1), 30);
+
+        assertEquals(1, actual.size());
+        assertEquals(endingSoon.getId(), actual.get(0).getId());
+        assertEquals(endingSoon.getTenantIds(), actual.get(0).getTenantIds());
+    }
 }
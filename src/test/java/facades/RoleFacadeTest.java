@@ -2,13 +2,17 @@ package facades;
 
 import TestEnvironment.TestEnvironment;
 import entities.Role;
+import entities.User;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class RoleFacadeTest extends TestEnvironment {
     private static RoleFacade facade;
@@ -34,4 +38,53 @@ public class RoleFacadeTest extends TestEnvironment {
 
         assertThrows(EntityNotFoundException.class, () -> facade.getRoleByRole(role.getRole()));
     }
+
+    @Test
+    void getRoleByRoleFromRegistryTest() {
+        Role first = facade.getRoleByRole(role.getRole());
+        Role second = facade.getRoleByRole(role.getRole());
+
+        assertSame(first, second);
+        assertEquals(role.getId(), first.getId());
+    }
+
+    @Test
+    void getRoleAddedAfterRegistryWasLoadedTest() {
+        facade.getRoleByRole(role.getRole());
+        Role added = createAndPersistRole();
+
+        assertEquals(added.getId(), facade.getRoleByRole(added.getRole()).getId());
+    }
+
+    @Test
+    void getRoleNamesByUserIdTest() {
+        User user = createAndPersistUser();
+
+        assertEquals(Collections.singletonList(role.getRole()), facade.getRoleNamesByUserId(user.getId()));
+        assertSame(facade.getRoleName(role.getId()), facade.getRoleNamesByUserId(user.getId()).get(0));
+    }
+
+    @Test
+    void getRoleNamesByUserIdsTest() {
+        User userA = createAndPersistUser();
+        User userB = createAndPersistUser();
+
+        Map<Integer, List<String>> actual = facade.getRoleNamesByUserIds(Arrays.asList(userA.getId(), userB.getId(), nonExistingId));
+
+        assertEquals(2, actual.size());
+        assertEquals(Collections.singletonList(role.getRole()), actual.get(userA.getId()));
+        assertEquals(Collections.singletonList(role.getRole()), actual.get(userB.getId()));
+    }
+
+    @Test
+    void createUserWithRoleFromRegistryTest() throws Exception {
+        Role registered = facade.getRoleByRole(role.getRole());
+        emf.getCache().evictAll();
+        User user = new User("registry", password, 30);
+        user.addRole(registered);
+
+        UserFacade.getFacade(emf).createUser(user);
+
+        assertEquals(Collections.singletonList(role.getRole()), facade.getRoleNamesByUserId(user.getId()));
+    }
 }
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityNotFoundException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +39,44 @@ public class TenantFacadeTest extends TestEnvironment {
         assertThrows(EntityNotFoundException.class,()-> facade.getTenantById(nonExistingId));
     }
 
+    @Test
+    public void getTenantsByIdsTest() {
+        Tenant tenantA = createAndPersistTenant();
+        Tenant tenantB = createAndPersistTenant();
+
+        List<Tenant> actual = facade.getTenantsByIds(Arrays.asList(tenantB.getId(), tenantA.getId(), tenantB.getId()));
+
+        assertEquals(Arrays.asList(tenantB, tenantA), actual);
+    }
+
+    @Test
+    public void getTenantsByIdsInChunksTest() {
+        Tenant tenantA = createAndPersistTenant();
+        Tenant tenantB = createAndPersistTenant();
+        List<Integer> ids = new ArrayList<>();
+        ids.add(tenantA.getId());
+        for (int i = 1; i <= EntityLookup.IN_CHUNK_SIZE; i++) {
+            ids.add(tenantA.getId() + tenantB.getId() + i);
+        }
+        ids.add(tenantB.getId());
+
+        EntityNotFoundException actual = assertThrows(EntityNotFoundException.class, ()-> facade.getTenantsByIds(ids));
+
+        assertTrue(actual.getMessage().contains(String.valueOf(tenantA.getId() + tenantB.getId() + 1)));
+        assertTrue(actual.getMessage().contains(String.valueOf(tenantA.getId() + tenantB.getId() + EntityLookup.IN_CHUNK_SIZE)));
+        assertEquals(2, facade.getTenantsByIds(Arrays.asList(tenantA.getId(), tenantB.getId())).size());
+    }
+
+    @Test
+    public void getTenantsByNonExistingIdsTest() {
+        Tenant tenant = createAndPersistTenant();
+
+        EntityNotFoundException actual = assertThrows(EntityNotFoundException.class,
+                ()-> facade.getTenantsByIds(Arrays.asList(tenant.getId(), nonExistingId, nonExistingId - 1)));
+
+        assertTrue(actual.getMessage().contains("[" + nonExistingId + ", " + (nonExistingId - 1) + "]"));
+    }
+
     @Test
     public void getAllTenantsTest() {
         Tenant tenantA = createAndPersistTenant();
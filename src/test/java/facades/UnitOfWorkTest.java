@@ -0,0 +1,167 @@
+package facades;
+
+import TestEnvironment.TestEnvironment;
+import entities.Tenant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import utils.PoolMetrics;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkTest extends TestEnvironment {
+
+    @AfterEach
+    public void endUnitOfWork() {
+        UnitOfWork.end();
+    }
+
+    @Test
+    public void getEntityManagerInUnitOfWorkTest() {
+        UnitOfWork.begin();
+
+        EntityManager first = UnitOfWork.getEntityManager(emf);
+        UnitOfWork.release(first);
+        EntityManager second = UnitOfWork.getEntityManager(emf);
+
+        assertSame(first, second);
+        assertTrue(first.isOpen());
+    }
+
+    @Test
+    public void endClosesEntityManagerTest() {
+        UnitOfWork.begin();
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+
+        UnitOfWork.end();
+
+        assertFalse(em.isOpen());
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    public void releaseRollsBackInUnitOfWorkTest() {
+        UnitOfWork.begin();
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        em.getTransaction().begin();
+
+        UnitOfWork.release(em);
+
+        assertFalse(em.getTransaction().isActive());
+        assertTrue(em.isOpen());
+    }
+
+    @Test
+    public void releaseOutsideUnitOfWorkTest() {
+        EntityManager first = UnitOfWork.getEntityManager(emf);
+        UnitOfWork.release(first);
+        EntityManager second = UnitOfWork.getEntityManager(emf);
+        UnitOfWork.release(second);
+
+        assertNotSame(first, second);
+        assertFalse(first.isOpen());
+    }
+
+    @Test
+    public void facadesShareEntitiesInUnitOfWorkTest() {
+        Tenant tenant = createAndPersistTenant();
+        UnitOfWork.begin();
+
+        Tenant first = TenantFacade.getFacade(emf).getTenantById(tenant.getId());
+        Tenant second = TenantFacade.getFacade(emf).getTenantById(tenant.getId());
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void runClosesEntityManagerWhenWorkThrowsTest() {
+        AtomicReference<EntityManager> used = new AtomicReference<>();
+        long closed = EntityManagerTracker.getClosed();
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.run(emf, em -> {
+            used.set(em);
+            throw new IllegalStateException();
+        }));
+
+        assertFalse(used.get().isOpen());
+        assertEquals(closed + 1, EntityManagerTracker.getClosed());
+    }
+
+    @Test
+    public void inTransactionRollsBackWhenWorkThrowsTest() {
+        Tenant tenant = createAndPersistTenant();
+        AtomicReference<EntityManager> used = new AtomicReference<>();
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.inTransaction(emf, em -> {
+            used.set(em);
+            em.find(Tenant.class, tenant.getId()).setName("Changed");
+            throw new IllegalStateException();
+        }));
+
+        assertFalse(used.get().isOpen());
+        assertEquals(tenant.getName(), TenantFacade.getFacade(emf).getTenantById(tenant.getId()).getName());
+    }
+
+    @Test
+    public void leakedEntityManagerIsCountedTest() throws InterruptedException {
+        long leaked = EntityManagerTracker.getLeaked();
+
+        UnitOfWork.getEntityManager(emf);
+        for (int i = 0; i < 50 && EntityManagerTracker.getLeaked() == leaked; i++) {
+            System.gc();
+            Thread.sleep(100);
+            EntityManagerTracker.check();
+        }
+
+        assertTrue(EntityManagerTracker.getLeaked() > leaked);
+    }
+
+    @Test
+    public void overdueEntityManagerIsCountedOnceTest() throws InterruptedException {
+        long overdue = EntityManagerTracker.getOverdue();
+        long counted;
+        EntityManager em = UnitOfWork.getEntityManager(emf);
+        try {
+            EntityManagerTracker.configure(true, 0);
+            Thread.sleep(5);
+            EntityManagerTracker.check();
+            counted = EntityManagerTracker.getOverdue();
+            EntityManagerTracker.configure(true, 0);
+            EntityManagerTracker.check();
+        } finally {
+            UnitOfWork.release(em);
+            EntityManagerTracker.configure(false, EntityManagerTracker.DEFAULT_THRESHOLD_MS);
+        }
+
+        assertTrue(counted > overdue);
+        assertEquals(counted, EntityManagerTracker.getOverdue());
+    }
+
+    @Test
+    public void runIsolatedReadsOnIsolatedPoolTest() {
+        UnitOfWork.begin();
+        //The request's EntityManager takes its connection of the main pool with the first query
+        UnitOfWork.run(emf, em -> em.createQuery("SELECT COUNT(t) FROM Tenant t").getSingleResult());
+        int mainActive = getActiveConnections("puTest");
+
+        int[] active = UnitOfWork.runIsolated(emf, em -> {
+            em.createQuery("SELECT COUNT(t) FROM Tenant t").getSingleResult();
+            return new int[]{getActiveConnections("puTest"), getActiveConnections("puTest-isolated")};
+        });
+
+        assertEquals(mainActive, active[0]);
+        assertEquals(1, active[1]);
+    }
+
+    private static int getActiveConnections(String poolName) {
+        int active = 0;
+        for (PoolMetrics pool : PoolMetrics.getAll()) {
+            if (pool.getPoolName().equals(poolName)) {
+                active += pool.getActiveConnections();
+            }
+        }
+        return active;
+    }
+}
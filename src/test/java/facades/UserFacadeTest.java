@@ -1,6 +1,9 @@
 package facades;
 
 import TestEnvironment.TestEnvironment;
+import dtos.RentalDTO;
+import dtos.TenantDTO;
+import dtos.UserDTO;
 import entities.House;
 import entities.Rental;
 import entities.Tenant;
@@ -8,14 +11,27 @@ import entities.User;
 import errorhandling.IllegalAgeException;
 import errorhandling.InvalidDateException;
 import errorhandling.InvalidUsernameException;
+import errorhandling.OverlappingRentalException;
+import errorhandling.RentalBatchException;
 
 import errorhandling.UniqueException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import security.errorhandling.AuthenticationException;
+import utils.ApiDateFormat;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -139,6 +155,53 @@ public class UserFacadeTest extends TestEnvironment {
         assertDatabaseHasEntityWith(user,"age",user.getAge());
     }
 
+    @Test
+    public void createUsersWithSameUsernameConcurrentlyTest() throws Exception {
+        int threads = 16;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            User user = createUser();
+            user.setUsername("samename");
+            users.add(user);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Boolean>> created = new ArrayList<>();
+        try {
+            for (User user : users) {
+                created.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        facade.createUser(user);
+                        return true;
+                    } catch (UniqueException exception) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : created) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            assertEquals(1L, em.createQuery("SELECT count(u) FROM User u WHERE u.username = :username", Long.class)
+                    .setParameter("username", "samename")
+                    .getSingleResult());
+        } finally {
+            em.close();
+        }
+    }
+
     @Test
     public void updateUsernameWhenItAlreadyIsInUseTest() {
         User userA = createAndPersistUser();
@@ -205,6 +268,54 @@ public class UserFacadeTest extends TestEnvironment {
         assertEquals(expected.getId(),actual.getId());
     }
 
+    @Test
+    public void getUserDTOByIdTest() {
+        User expected = createAndPersistUser();
+
+        UserDTO actual = facade.getUserDTOById(expected.getId());
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getUsername(), actual.getUsername());
+        assertEquals(expected.getRolesAsStringList(), actual.getRoles());
+        assertNull(actual.getPassword());
+    }
+
+    @Test
+    public void getUserDTOByNonExistingIdTest() {
+        assertThrows(EntityNotFoundException.class, () -> facade.getUserDTOById(nonExistingId));
+    }
+
+    @Test
+    public void getUserDTOsTest() {
+        User userA = createAndPersistUser();
+        User userB = createAndPersistUser();
+
+        List<UserDTO> actual = facade.getUserDTOs(userA.getId(), 10);
+
+        assertEquals(1, actual.size());
+        assertEquals(userB.getId(), actual.get(0).getId());
+        assertEquals(userB.getRolesAsStringList(), actual.get(0).getRoles());
+    }
+
+    @Test
+    public void getVerifiedUserTest() throws Exception {
+        User user = createAndPersistUser();
+
+        UserDTO actual = facade.getVerifiedUser(user.getUsername(), password);
+
+        assertEquals(user.getId(), actual.getId());
+        assertEquals(user.getRolesAsStringList(), actual.getRoles());
+        assertNull(actual.getPassword());
+    }
+
+    @Test
+    public void getVerifiedUserWithWrongPasswordTest() {
+        User user = createAndPersistUser();
+
+        assertThrows(AuthenticationException.class, () -> facade.getVerifiedUser(user.getUsername(), "wrong" + password));
+        assertThrows(AuthenticationException.class, () -> facade.getVerifiedUser("nobody", password));
+    }
+
     @Test
     public void getUserByNonExistingIdTest() {
         assertThrows(EntityNotFoundException.class,()-> facade.getUserById(nonExistingId));
@@ -219,6 +330,21 @@ public class UserFacadeTest extends TestEnvironment {
         assertTrue(actual.contains(user));
     }
 
+    @Test
+    public void streamUserDTOsTest() {
+        User userA = createAndPersistUser();
+        User userB = createAndPersistUser();
+        List<UserDTO> actual = new ArrayList<>();
+
+        facade.streamUserDTOs(null, actual::add);
+
+        assertEquals(2, actual.size());
+        assertEquals(userA.getId(), actual.get(0).getId());
+        assertEquals(userA.getRolesAsStringList(), actual.get(0).getRoles());
+        assertEquals(userB.getUsername(), actual.get(1).getUsername());
+        assertNull(actual.get(1).getPassword());
+    }
+
     @Test
     public void getRentalsByUserIdTest() {
         Tenant tenant = createAndPersistTenant();
@@ -231,14 +357,17 @@ public class UserFacadeTest extends TestEnvironment {
         update(rentalB);
         int expected = 2;
 
-        List<Rental> actual = facade.getRentalsByUserId(tenant.getUser().getId());
+        List<RentalDTO> actual = facade.getRentalDTOsByUserId(tenant.getUser().getId());
 
         assertEquals(expected, actual.size());
+        assertTrue(actual.stream().anyMatch(rental -> rental.getId().equals(rentalA.getId())
+                && rental.getContactPerson().equals(rentalA.getContactPerson())
+                && rental.getHouseId().equals(rentalA.getHouse().getId())));
     }
 
     @Test
     public void getRentalsByNonExistingIdTest() {
-        assertThrows(EntityNotFoundException.class, ()-> facade.getRentalsByUserId(nonExistingId));
+        assertThrows(EntityNotFoundException.class, ()-> facade.getRentalDTOsByUserId(nonExistingId));
     }
 
     @Test
@@ -252,18 +381,22 @@ public class UserFacadeTest extends TestEnvironment {
         update(rentalB);
         int expected = 2;
 
-        List<Tenant> actual = facade.getTenantsByHouseId(house.getId());
+        List<TenantDTO> actual = facade.getTenantDTOsByHouseId(house.getId());
 
         assertEquals(expected, actual.size());
+        Tenant tenant = rentalA.getTenants().get(0);
+        assertTrue(actual.stream().anyMatch(tenantDTO -> tenantDTO.getId().equals(tenant.getId())
+                && tenantDTO.getName().equals(tenant.getName())
+                && tenantDTO.getUserId().equals(tenant.getUser().getId())));
     }
 
     @Test
     public void getTenantsByNonExistingHouseIdTest() {
-        assertThrows(EntityNotFoundException.class, ()-> facade.getTenantsByHouseId(nonExistingId));
+        assertThrows(EntityNotFoundException.class, ()-> facade.getTenantDTOsByHouseId(nonExistingId));
     }
 
     @Test
-    public void createRentalTest() throws InvalidDateException {
+    public void createRentalTest() throws InvalidDateException, OverlappingRentalException {
         Rental rental = createRental();
 
         Rental actual = facade.createRental(rental);
@@ -272,37 +405,46 @@ public class UserFacadeTest extends TestEnvironment {
     }
 
     @Test
-    public void createRentalWithInvalidStartAndEndDateTest() {
+    public void createRentalEvictsHouseAndTenantsFromSharedCacheTest() throws InvalidDateException, OverlappingRentalException {
         Rental rental = createRental();
-        rental.setStartDate(faker.bothify("??##??"));
-        rental.setEndDate(faker.bothify("??##??"));
+        House house = rental.getHouse();
+        Tenant tenant = rental.getTenants().get(0);
+        HouseFacade.getFacade(emf).getHouseById(house.getId());
+        TenantFacade.getFacade(emf).getTenantById(tenant.getId());
 
-        assertThrows(InvalidDateException.class, ()-> facade.createRental(rental));
+        facade.createRental(rental);
+
+        assertFalse(emf.getCache().contains(House.class, house.getId()));
+        assertFalse(emf.getCache().contains(Tenant.class, tenant.getId()));
+        assertTrue(HouseFacade.getFacade(emf).getHouseById(house.getId()).getRentals().contains(rental));
     }
 
     @Test
-    public void createRentalWithImpossibleStartAndEndDateTest() {
-        Rental rental = createRental();
-        rental.setStartDate(faker.bothify("7#/4#/202#"));
-        rental.setEndDate(faker.bothify("9#/6#/203#"));
+    public void parseInvalidDateTest() {
+        assertThrows(InvalidDateException.class, ()-> ApiDateFormat.parse(faker.bothify("??##??")));
+        assertThrows(InvalidDateException.class, ()-> ApiDateFormat.parse(null));
+    }
 
-        assertThrows(InvalidDateException.class, ()-> facade.createRental(rental));
+    @Test
+    public void parseImpossibleDateTest() {
+        assertThrows(InvalidDateException.class, ()-> ApiDateFormat.parse(faker.bothify("7#/4#/202#")));
+        assertThrows(InvalidDateException.class, ()-> ApiDateFormat.parse("31/02/2022"));
     }
 
     @Test
     public void createRentalWithStartDateWhichExceedsEndDateTest() {
         Rental rental = createRental();
-        rental.setStartDate(faker.bothify("24/04/204#"));
-        rental.setStartDate(faker.bothify("1#/05/203#"));
+        rental.setStartDate(LocalDate.of(2040 + faker.number().numberBetween(0, 10), 4, 24));
+        rental.setEndDate(LocalDate.of(2030 + faker.number().numberBetween(0, 10), 5, 10));
 
         assertThrows(InvalidDateException.class, ()-> facade.createRental(rental));
     }
 
     @Test
-    public void updateRentalStartAndEndDateTest() throws InvalidDateException {
+    public void updateRentalStartAndEndDateTest() throws InvalidDateException, OverlappingRentalException {
         Rental rental = createAndPersistRental();
-        rental.setStartDate(faker.bothify("1#/09/202#"));
-        rental.setEndDate(faker.bothify("30/09/203#"));
+        rental.setStartDate(LocalDate.of(2020 + faker.number().numberBetween(0, 10), 9, 10));
+        rental.setEndDate(LocalDate.of(2030 + faker.number().numberBetween(0, 10), 9, 30));
 
         facade.updateRental(rental);
 
@@ -311,19 +453,19 @@ public class UserFacadeTest extends TestEnvironment {
     }
 
     @Test
-    public void updateRentalWithInvalidStartAndEndDateTest() {
+    public void updateRentalWithoutStartAndEndDateTest() {
         Rental rental = createAndPersistRental();
-        rental.setStartDate(faker.bothify("??##?"));
-        rental.setEndDate(faker.bothify("??##?"));
+        rental.setStartDate(null);
+        rental.setEndDate(null);
 
         assertThrows(InvalidDateException.class, ()-> facade.updateRental(rental));
     }
 
     @Test
-    public void updateRentalWithImpossibleStartAndEndDateTest() {
+    public void updateRentalWithSameStartAndEndDateTest() {
         Rental rental = createAndPersistRental();
-        rental.setStartDate(faker.bothify("5#/6#/202#"));
-        rental.setEndDate(faker.bothify("6#/4#/203#"));
+        rental.setStartDate(LocalDate.of(2025, 6, 1));
+        rental.setEndDate(LocalDate.of(2025, 6, 1));
 
         assertThrows(InvalidDateException.class, ()-> facade.updateRental(rental));
     }
@@ -331,14 +473,14 @@ public class UserFacadeTest extends TestEnvironment {
     @Test
     public void updateRentalWithStartDateWhichExceedsEndDateTest() {
         Rental rental = createAndPersistRental();
-        rental.setStartDate(faker.bothify("1#/06/202#"));
-        rental.setEndDate(faker.bothify("1#/06/201#"));
+        rental.setStartDate(LocalDate.of(2020 + faker.number().numberBetween(0, 10), 6, 10));
+        rental.setEndDate(LocalDate.of(2010 + faker.number().numberBetween(0, 10), 6, 10));
 
         assertThrows(InvalidDateException.class, ()-> facade.updateRental(rental));
     }
 
     @Test
-    public void updateRentalWithNewHouseTest() throws InvalidDateException {
+    public void updateRentalWithNewHouseTest() throws InvalidDateException, OverlappingRentalException {
         Rental rental = createAndPersistRental();
         House house = createAndPersistHouse();
         rental.setHouse(house);
@@ -353,6 +495,121 @@ public class UserFacadeTest extends TestEnvironment {
         assertThrows(EntityNotFoundException.class, ()-> facade.updateRental(null));
     }
 
+    @Test
+    public void createRentalOverlappingRentalTest() {
+        Rental existing = createRentalOfYear(2022);
+        persist(existing);
+        Rental rental = createRental();
+        rental.setHouse(existing.getHouse());
+        rental.setStartDate(LocalDate.of(2022, 12, 31));
+        rental.setEndDate(LocalDate.of(2023, 12, 31));
+
+        assertThrows(OverlappingRentalException.class, ()-> facade.createRental(rental));
+    }
+
+    @Test
+    public void createRentalAfterRentalTest() throws InvalidDateException, OverlappingRentalException {
+        Rental existing = facade.createRental(createRentalOfYear(2022));
+        Rental rental = createRentalOfYear(2023);
+        rental.setHouse(existing.getHouse());
+
+        facade.createRental(rental);
+
+        assertDatabaseHasEntity(rental, rental.getId());
+        assertThrows(OverlappingRentalException.class, ()-> facade.createRental(createRentalOfYear(2023, existing)));
+    }
+
+    @Test
+    public void updateRentalOverlappingRentalTest() throws InvalidDateException, OverlappingRentalException {
+        Rental existing = facade.createRental(createRentalOfYear(2022));
+        Rental rental = facade.createRental(createRentalOfYear(2023, existing));
+        rental.setStartDate(LocalDate.of(2022, 6, 1));
+
+        assertThrows(OverlappingRentalException.class, ()-> facade.updateRental(rental));
+    }
+
+    @Test
+    public void deleteRentalFreesItsPeriodTest() throws InvalidDateException, OverlappingRentalException {
+        Rental existing = facade.createRental(createRentalOfYear(2022));
+
+        facade.deleteRental(existing.getId());
+
+        assertDoesNotThrow(()-> facade.createRental(createRentalOfYear(2022, existing)));
+    }
+
+    @Test
+    public void createRentalsTest() throws RentalBatchException {
+        List<RentalDTO> rentalDTOs = new ArrayList<>();
+        rentalDTOs.add(createRentalDTO(createRentalOfYear(2022)));
+        rentalDTOs.add(createRentalDTO(createRentalOfYear(2022)));
+
+        List<Rental> actual = facade.createRentals(rentalDTOs);
+
+        assertEquals(2, actual.size());
+        for (Rental rental : actual) {
+            assertDatabaseHasEntity(rental, rental.getId());
+        }
+        assertEquals(rentalDTOs.get(0).getTenantIds(), actual.get(0).getTenantIds());
+    }
+
+    @Test
+    public void createRentalsWithFailuresCreatesNoneTest() {
+        Rental existing = createRentalOfYear(2022);
+        persist(existing);
+        List<RentalDTO> rentalDTOs = new ArrayList<>();
+        rentalDTOs.add(createRentalDTO(createRentalOfYear(2022)));
+        rentalDTOs.add(createRentalDTO(createRentalOfYear(2022, existing)));
+        Rental withoutTenants = createRentalOfYear(2023, existing);
+        withoutTenants.getTenants().clear();
+        RentalDTO sameHouseInBatch = createRentalDTO(withoutTenants);
+        rentalDTOs.add(sameHouseInBatch);
+        rentalDTOs.add(sameHouseInBatch);
+        Rental withMissingTenant = createRentalOfYear(2022);
+        RentalDTO missingTenant = new RentalDTO.Builder()
+                .setStartDate("01/01/2022")
+                .setEndDate("31/12/2022")
+                .setPriceAnnual(withMissingTenant.getPriceAnnual())
+                .setDeposit(withMissingTenant.getDeposit())
+                .setContactPerson(withMissingTenant.getContactPerson())
+                .setHouseId(withMissingTenant.getHouse().getId())
+                .setTenantIds(Arrays.asList(withMissingTenant.getTenantIds().get(0), nonExistingId))
+                .build();
+        rentalDTOs.add(missingTenant);
+
+        RentalBatchException actual = assertThrows(RentalBatchException.class, ()-> facade.createRentals(rentalDTOs));
+
+        assertEquals(3, actual.getFailures().size());
+        assertTrue(actual.getFailures().get(1) instanceof OverlappingRentalException);
+        assertTrue(actual.getFailures().get(3) instanceof OverlappingRentalException);
+        assertTrue(actual.getFailures().get(4) instanceof EntityNotFoundException);
+        assertEquals(1, RentalFacade.getFacade(emf).getAllRentals().size());
+    }
+
+    private RentalDTO createRentalDTO(Rental rental) {
+        return new RentalDTO.Builder()
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
+                .setPriceAnnual(rental.getPriceAnnual())
+                .setDeposit(rental.getDeposit())
+                .setContactPerson(rental.getContactPerson())
+                .setHouseId(rental.getHouse().getId())
+                .setTenantIds(rental.getTenantIds())
+                .build();
+    }
+
+    private Rental createRentalOfYear(int year) {
+        Rental rental = createRental();
+        rental.setStartDate(LocalDate.of(year, 1, 1));
+        rental.setEndDate(LocalDate.of(year, 12, 31));
+        return rental;
+    }
+
+    private Rental createRentalOfYear(int year, Rental sameHouseAs) {
+        Rental rental = createRentalOfYear(year);
+        rental.setHouse(sameHouseAs.getHouse());
+        return rental;
+    }
+
     @Test
     public void deleteRentalTest() {
         Rental rental = createAndPersistRental();
@@ -363,8 +620,48 @@ public class UserFacadeTest extends TestEnvironment {
         assertDatabaseHasEntity(rental.getHouse(), rental.getHouse().getId());
     }
 
+    @Test
+    public void deleteRentalEvictsHouseFromSharedCacheTest() {
+        Rental rental = createAndPersistRental();
+        House house = HouseFacade.getFacade(emf).getHouseById(rental.getHouse().getId());
+
+        facade.deleteRental(rental.getId());
+
+        assertFalse(emf.getCache().contains(House.class, house.getId()));
+    }
+
     @Test
     public void deleteRentalWithNonExistingIdTest() {
         assertThrows(EntityNotFoundException.class, ()-> facade.deleteRental(nonExistingId));
     }
+
+    @Test
+    public void deleteUserTest() {
+        User user = createAndPersistUser();
+
+        facade.deleteUser(user.getId());
+
+        assertDatabaseDoesNotHaveEntity(user, user.getId());
+        assertDatabaseHasEntity(role, role.getId());
+    }
+
+    @Test
+    public void deleteUserWithNonExistingIdTest() {
+        assertThrows(EntityNotFoundException.class, ()-> facade.deleteUser(nonExistingId));
+    }
+
+    @Test
+    public void deleteRentalsTest() {
+        Rental first = createAndPersistRental();
+        Rental second = createAndPersistRental();
+        Tenant tenant = first.getTenants().get(0);
+
+        List<Integer> deleted = facade.deleteRentals(Arrays.asList(first.getId(), nonExistingId, second.getId()));
+
+        assertEquals(Arrays.asList(first.getId(), second.getId()), deleted);
+        assertDatabaseDoesNotHaveEntity(first, first.getId());
+        assertDatabaseDoesNotHaveEntity(second, second.getId());
+        assertDatabaseHasEntity(tenant, tenant.getId());
+        assertTrue(TenantFacade.getFacade(emf).getTenantById(tenant.getId()).getRentals().isEmpty());
+    }
 }
@@ -1,14 +1,27 @@
 package rest;
 
 import entities.House;
+import entities.Rental;
 import entities.User;
 import io.restassured.http.ContentType;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static io.restassured.RestAssured.given;
-import static org.hamcrest.Matchers.hasEntry;
-import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class HouseResourceTest extends ResourceTestEnvironment {
     private final String BASE_URL = "/houses/";
@@ -30,6 +43,193 @@ public class HouseResourceTest extends ResourceTestEnvironment {
                 .body("$", hasItem(hasEntry("address", house.getAddress())));
     }
 
+    @Test
+    public void getAllHousesNotModifiedTest() {
+        createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        String eTag = given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_MODIFIED_304.getStatusCode())
+                .header("ETag", eTag);
+
+        House added = createAndPersistHouse();
+
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .header("ETag", not(eTag))
+                .body("$", hasItem(hasEntry("address", added.getAddress())));
+    }
+
+    @Test
+    public void getAllHousesLastModifiedTest() throws InterruptedException {
+        User admin = createAndPersistAdmin();
+        login(admin);
+        //Early in a second, so the change and the first request fall in the same one
+        while (System.currentTimeMillis() % 1000 > 300) {
+            Thread.sleep(10);
+        }
+        createAndPersistHouse();
+
+        //A second change before the end of this second would get the same Last-Modified
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)))
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .header("Last-Modified", nullValue());
+
+        Thread.sleep(1000);
+        String lastModified = given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .header("Last-Modified", notNullValue())
+                .extract().header("Last-Modified");
+
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-Modified-Since", lastModified)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_MODIFIED_304.getStatusCode());
+    }
+
+    @Test
+    public void getHousesPageTest() {
+        House houseA = createAndPersistHouse();
+        House houseB = createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("limit", 1)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("$", hasSize(1))
+                .body("[0].id", equalTo(houseA.getId()))
+                .header("Link", containsString("after=" + houseA.getId()))
+                .header("Link", containsString("rel=\"next\""));
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("after", houseA.getId())
+                .queryParam("limit", 1)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("$", hasSize(1))
+                .body("[0].id", equalTo(houseB.getId()))
+                .header("Link", nullValue());
+    }
+
+    @Test
+    public void streamHousesTest() {
+        House houseA = createAndPersistHouse();
+        House houseB = createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("stream", true)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("$", hasSize(2))
+                .body("id", contains(houseA.getId(), houseB.getId()))
+                .body("$", hasItem(hasEntry("address", houseB.getAddress())));
+    }
+
+    @Test
+    public void getHousesWithInvalidLimitTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("limit", 0)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode());
+    }
+
+    @Test
+    public void getAllHousesIsCompactTest() {
+        House house = createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("[0].number_of_rooms", equalTo(house.getNumberOfRooms()))
+                .body(not(containsString("\n")));
+    }
+
+    @Test
+    public void getAllHousesPrettyTest() {
+        House house = createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("pretty", true)
+                .when()
+                .get(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("[0].number_of_rooms", equalTo(house.getNumberOfRooms()))
+                .body(containsString("\n"));
+    }
+
     @Test
     public void getAllHousesWhenUnauthenticatedTest() {
         given()
@@ -53,4 +253,108 @@ public class HouseResourceTest extends ResourceTestEnvironment {
                 .assertThat()
                 .statusCode(HttpStatus.UNAUTHORIZED_401.getStatusCode());
     }
+
+    @Test
+    public void getAvailabilityTest() {
+        Rental rental = createRental();
+        rental.setStartDate(LocalDate.of(2022, 3, 1));
+        rental.setEndDate(LocalDate.of(2022, 5, 31));
+        persist(rental);
+        User user = createAndPersistUser();
+        login(user);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("from", "01/01/2022")
+                .queryParam("to", "31/12/2022")
+                .when()
+                .get(BASE_URL + rental.getHouse().getId() + "/availability")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("available", equalTo(false))
+                .body("rented.rental_id", contains(rental.getId()))
+                .body("free.start_date", contains("01/01/2022", "01/06/2022"))
+                .body("free.end_date", contains("28/02/2022", "31/12/2022"));
+    }
+
+    @Test
+    public void getAvailabilityWithInvalidDatesTest() {
+        House house = createAndPersistHouse();
+        User user = createAndPersistUser();
+        login(user);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("from", "31/12/2022")
+                .queryParam("to", "01/01/2022")
+                .when()
+                .get(BASE_URL + house.getId() + "/availability")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode());
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("from", "2022-01-01")
+                .when()
+                .get(BASE_URL + house.getId() + "/availability")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode());
+    }
+
+    @Test
+    public void getAvailabilityOfNonExistingHouseTest() {
+        User user = createAndPersistUser();
+        login(user);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("from", "01/01/2022")
+                .queryParam("to", "31/12/2022")
+                .when()
+                .get(BASE_URL + nonExistingId + "/availability")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_FOUND_404.getStatusCode());
+    }
+
+    @Test
+    public void concurrentFirstRequestsTest() throws Exception {
+        House house = createAndPersistHouse();
+        User user = createAndPersistUser();
+        login(user);
+        String token = securityToken;
+        //A new application, so the requests below are its first ones
+        httpServer.shutdownNow();
+        httpServer = startServer();
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statusCodes = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                statusCodes.add(executor.submit(() -> {
+                    start.await();
+                    return given()
+                            .header("x-access-token", token)
+                            .queryParam("from", "01/01/2022")
+                            .queryParam("to", "31/12/2022")
+                            .when()
+                            .get(BASE_URL + house.getId() + "/availability")
+                            .statusCode();
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> statusCode : statusCodes) {
+                assertEquals(HttpStatus.OK_200.getStatusCode(), statusCode.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package rest;
+
+import entities.User;
+import io.restassured.http.ContentType;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.util.HttpStatus;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import security.PasswordHashingExecutor;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.UriBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+public class LoginResourceTest extends ResourceTestEnvironment {
+    private static final int SATURATED_SERVER_PORT = 7778;
+
+    //A second server whose password hashing executor has one thread and one queue slot, both taken by the tests
+    private static final PasswordHashingExecutor SATURATED_HASHING = new PasswordHashingExecutor(1, 1);
+    private static HttpServer saturatedServer;
+
+    private CountDownLatch release;
+    private final List<Future<Object>> blockers = new ArrayList<>();
+
+    @BeforeAll
+    public static void startSaturatedServer() {
+        ResourceConfig resourceConfig = ResourceConfig.forApplication(new ApplicationConfig())
+                .register(new AbstractBinder() {
+                    @Override
+                    protected void configure() {
+                        bind(SATURATED_HASHING).to(PasswordHashingExecutor.class).ranked(1);
+                    }
+                });
+        saturatedServer = GrizzlyHttpServerFactory.createHttpServer(
+                UriBuilder.fromUri(SERVER_URL).port(SATURATED_SERVER_PORT).build(), resourceConfig);
+    }
+
+    @AfterAll
+    public static void stopSaturatedServer() {
+        saturatedServer.shutdownNow();
+        SATURATED_HASHING.shutdown();
+    }
+
+    @BeforeEach
+    public void saturateHashing() throws InterruptedException {
+        release = new CountDownLatch(1);
+        //The first task is running on the thread before the second is queued, so the second stays in the queue
+        CountDownLatch started = new CountDownLatch(1);
+        blockers.add(SATURATED_HASHING.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        }));
+        started.await();
+        blockers.add(SATURATED_HASHING.submit(() -> {
+            release.await();
+            return null;
+        }));
+    }
+
+    //Waits until both have finished, so the next test finds the thread and the queue slot free
+    @AfterEach
+    public void releaseHashing() throws Exception {
+        release.countDown();
+        for (Future<Object> blocker : blockers) {
+            blocker.get();
+        }
+        blockers.clear();
+    }
+
+    @Test
+    public void loginTest() {
+        User user = createAndPersistUser();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(String.format("{\"username\": \"%s\", \"password\": \"%s\"}", user.getUsername(), password))
+                .when()
+                .post("/login")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("username", equalTo(user.getUsername()))
+                .body("token", notNullValue());
+    }
+
+    @Test
+    public void loginWithWrongPasswordTest() {
+        User user = createAndPersistUser();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(String.format("{\"username\": \"%s\", \"password\": \"%s\"}", user.getUsername(), password + "x"))
+                .when()
+                .post("/login")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.FORBIDDEN_403.getStatusCode());
+    }
+
+    @Test
+    public void loginWhenPasswordHashingIsFullTest() {
+        User user = createAndPersistUser();
+
+        given()
+                .port(SATURATED_SERVER_PORT)
+                .contentType(ContentType.JSON)
+                .body(String.format("{\"username\": \"%s\", \"password\": \"%s\"}", user.getUsername(), password))
+                .when()
+                .post("/login")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE_503.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Resource.RETRY_AFTER_SECONDS))
+                .contentType(ContentType.JSON)
+                .body("code", equalTo(HttpStatus.SERVICE_UNAVAILABLE_503.getStatusCode()));
+    }
+
+    @Test
+    public void createUserWhenPasswordHashingIsFullTest() {
+        given()
+                .port(SATURATED_SERVER_PORT)
+                .contentType(ContentType.JSON)
+                .body("{\"username\": \"hashing\", \"password\": \"test123\", \"age\": 20}")
+                .when()
+                .post("/users")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE_503.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Resource.RETRY_AFTER_SECONDS));
+    }
+}
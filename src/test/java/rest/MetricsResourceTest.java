@@ -0,0 +1,187 @@
+package rest;
+
+import entities.House;
+import entities.User;
+import facades.HouseFacade;
+import io.restassured.http.ContentType;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.glassfish.grizzly.http.util.HttpStatus;
+import org.junit.jupiter.api.Test;
+import utils.CacheStatistics;
+import utils.EMF_Creator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsResourceTest extends ResourceTestEnvironment {
+    private final String BASE_URL = "/metrics/";
+
+    @Test
+    public void getPoolMetricsTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "pool")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("pool", hasItem("puTest"))
+                .body("[0].max_size", greaterThan(0))
+                .body("[0].acquire_count", greaterThan(0))
+                .body("[0].acquire_time_histogram", hasKey("le_inf"));
+    }
+
+    @Test
+    public void getPoolMetricsAfterClosingFactoryOfSamePoolTest() {
+        //A second factory of the test persistence unit has pools of the same names
+        EntityManagerFactory other = EMF_Creator.createEntityManagerFactoryForTest();
+        try {
+            EntityManager em = other.createEntityManager();
+            em.createQuery("SELECT COUNT(h) FROM House h").getSingleResult();
+            em.close();
+        } finally {
+            other.close();
+        }
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "pool")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("pool", hasItem("puTest"));
+    }
+
+    @Test
+    public void cacheStatisticsOfClosedSessionAreDroppedTest() {
+        //Two factories of one unit share its session, the statistics go when the last of them is closed
+        EntityManagerFactory first = EMF_Creator.createReadReplicaForTest(emf);
+        EntityManagerFactory second = EMF_Creator.createReadReplicaForTest(emf);
+        CacheStatistics statistics = CacheStatistics.forSession(JpaHelper.getServerSession(first));
+        try {
+            assertNotNull(statistics);
+            assertSame(statistics, CacheStatistics.forSession(JpaHelper.getServerSession(second)));
+
+            first.close();
+            assertEquals(1, countStatistics(statistics.getUnitName()));
+        } finally {
+            if (first.isOpen()) {
+                first.close();
+            }
+            second.close();
+        }
+
+        assertFalse(CacheStatistics.getAll().contains(statistics));
+        assertEquals(0, countStatistics(statistics.getUnitName()));
+        assertNotNull(CacheStatistics.forSession(JpaHelper.getServerSession(emf)));
+    }
+
+    private static long countStatistics(String unitName) {
+        return CacheStatistics.getAll().stream()
+                .filter(statistics -> statistics.getUnitName().equals(unitName))
+                .count();
+    }
+
+    @Test
+    public void getCacheMetricsTest() {
+        House house = createAndPersistHouse();
+        User admin = createAndPersistAdmin();
+        login(admin);
+        HouseFacade.getFacade(emf).getHouseById(house.getId());
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "cache")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("entity", hasItem("House"))
+                .body("find { it.entity == 'House' }.hits", greaterThan(0));
+    }
+
+    @Test
+    public void getTokenMetricsTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        // Første kald verificerer tokenet, andet kald skal finde det i cachen
+        for (int i = 0; i < 2; i++) {
+            given()
+                    .header("x-access-token", securityToken)
+                    .when()
+                    .get(BASE_URL + "pool")
+                    .then()
+                    .assertThat()
+                    .statusCode(HttpStatus.OK_200.getStatusCode());
+        }
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "tokens")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("cache_size", greaterThan(0))
+                .body("cache_hits", greaterThan(0))
+                .body("verify_count", greaterThan(0))
+                .body("verify_time_histogram", hasKey("le_inf"));
+    }
+
+    @Test
+    public void getEntityManagerMetricsTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "entity-managers")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("opened", greaterThan(0))
+                .body("closed", greaterThan(0))
+                .body("leaked", greaterThanOrEqualTo(0))
+                .body("threshold_ms", greaterThan(0));
+    }
+
+    @Test
+    public void getPoolMetricsWhenUnauthenticatedTest() {
+        given()
+                .when()
+                .get(BASE_URL + "pool")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.FORBIDDEN_403.getStatusCode());
+    }
+
+    @Test
+    public void getPoolMetricsWhenUnauthorizedTest() {
+        User user = createAndPersistUser();
+        login(user);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "pool")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.UNAUTHORIZED_401.getStatusCode());
+    }
+}
@@ -7,6 +7,7 @@ import org.glassfish.grizzly.http.util.HttpStatus;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
 
@@ -27,7 +28,9 @@ public class RentalResourceTest extends ResourceTestEnvironment {
                 .assertThat()
                 .statusCode(HttpStatus.OK_200.getStatusCode())
                 .contentType(ContentType.JSON)
-                .body("$", hasItem(hasEntry("contact_person", rental.getContactPerson())));
+                .body("$", hasItem(hasEntry("contact_person", rental.getContactPerson())))
+                .body("[0].house.id", equalTo(rental.getHouse().getId()))
+                .body("[0].tenant_ids", equalTo(rental.getTenantIds()));
     }
 
     @Test
@@ -2,7 +2,6 @@ package rest;
 
 import TestEnvironment.TestEnvironment;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dtos.HouseDTO;
 import dtos.RentalDTO;
 import dtos.UserDTO;
@@ -17,7 +16,9 @@ import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import utils.ApiDateFormat;
 import utils.EMF_Creator;
+import utils.GsonRegistry;
 
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
@@ -30,7 +31,7 @@ public class ResourceTestEnvironment extends TestEnvironment {
     protected static final String SERVER_URL = "http://localhost/api";
     private static final URI BASE_URI = UriBuilder.fromUri(SERVER_URL).port(SERVER_PORT).build();
     protected static HttpServer httpServer;
-    protected static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    protected static final Gson GSON = GsonRegistry.PRETTY;
 
     static HttpServer startServer() {
         ResourceConfig resourceConfig = ResourceConfig.forApplication(new ApplicationConfig());
@@ -93,8 +94,8 @@ public class ResourceTestEnvironment extends TestEnvironment {
 
         return new RentalDTO.Builder()
                 .setId(rental.getId())
-                .setStartDate(rental.getStartDate())
-                .setEndDate(rental.getEndDate())
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
                 .setPriceAnnual(rental.getPriceAnnual())
                 .setDeposit(rental.getDeposit())
                 .setContactPerson(rental.getContactPerson())
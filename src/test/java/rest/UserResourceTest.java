@@ -7,8 +7,10 @@ import entities.*;
 import io.restassured.http.ContentType;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.junit.jupiter.api.Test;
+import utils.ApiDateFormat;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -16,6 +18,44 @@ import static org.hamcrest.Matchers.*;
 public class UserResourceTest extends ResourceTestEnvironment {
     private final String BASE_URL = "/users/";
 
+    @Test
+    public void getMeNotModifiedTest() {
+        User userA = createAndPersistUser();
+        User userB = createAndPersistUser();
+        login(userA);
+
+        String eTag = given()
+                .header("x-access-token", securityToken)
+                .when()
+                .get(BASE_URL + "me")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("username", equalTo(userA.getUsername()))
+                .extract().header("ETag");
+
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get(BASE_URL + "me")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_MODIFIED_304.getStatusCode());
+
+        login(userB);
+
+        given()
+                .header("x-access-token", securityToken)
+                .header("If-None-Match", eTag)
+                .when()
+                .get(BASE_URL + "me")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("username", equalTo(userB.getUsername()));
+    }
+
     @Test
     public void createUserTest() {
         UserDTO userDTO = createUserDTO();
@@ -60,6 +100,54 @@ public class UserResourceTest extends ResourceTestEnvironment {
                 .body("message", notNullValue());
     }
 
+    @Test
+    public void createUserWithMalformedJsonTest() {
+        given()
+                .header("Content-type", ContentType.JSON)
+                .and()
+                .body("{\"username\": \"user\", \"age\": ")
+                .when()
+                .post(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("code", equalTo(HttpStatus.BAD_REQUEST_400.getStatusCode()))
+                .body("message", notNullValue());
+    }
+
+    @Test
+    public void createUserWithAgeNotANumberTest() {
+        given()
+                .header("Content-type", ContentType.JSON)
+                .and()
+                .body("{\"username\": \"user\", \"password\": \"test123\", \"age\": \"abc\"}")
+                .when()
+                .post(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("code", equalTo(HttpStatus.BAD_REQUEST_400.getStatusCode()))
+                .body("message", notNullValue());
+    }
+
+    @Test
+    public void createUserWithUsernameNotAStringTest() {
+        given()
+                .header("Content-type", ContentType.JSON)
+                .and()
+                .body("{\"username\": {}, \"password\": \"test123\", \"age\": 20}")
+                .when()
+                .post(BASE_URL)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("code", equalTo(HttpStatus.BAD_REQUEST_400.getStatusCode()))
+                .body("message", notNullValue());
+    }
+
     @Test
     public void createUserWithUsernameThatAlreadyExistTest() {
         User existingUser = createAndPersistUser();
@@ -312,6 +400,110 @@ public class UserResourceTest extends ResourceTestEnvironment {
         assertDatabaseHasEntity(new Rental(), id);
     }
 
+    @Test
+    public void postRentalOverlappingRentalTest() {
+        Rental rental = createAndPersistRental();
+        RentalDTO rentalDTO = new RentalDTO.Builder()
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
+                .setPriceAnnual(rental.getPriceAnnual())
+                .setDeposit(rental.getDeposit())
+                .setContactPerson(rental.getContactPerson())
+                .setHouseId(rental.getHouse().getId())
+                .setTenantIds(rental.getTenantIds())
+                .build();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("Content-type", ContentType.JSON)
+                .header("x-access-token", securityToken)
+                .and()
+                .body(GSON.toJson(rentalDTO))
+                .when()
+                .post(BASE_URL+"rentals")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.CONFLICT_409.getStatusCode());
+    }
+
+    @Test
+    public void postRentalsTest() {
+        List<RentalDTO> rentalDTOs = new ArrayList<>();
+        rentalDTOs.add(createRentalDTO());
+        rentalDTOs.add(createRentalDTO());
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        List<Integer> ids = given()
+                .header("Content-type", ContentType.JSON)
+                .header("x-access-token", securityToken)
+                .and()
+                .body(GSON.toJson(rentalDTOs))
+                .when()
+                .post(BASE_URL+"rentals/batch")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.CREATED_201.getStatusCode())
+                .contentType(ContentType.JSON)
+                .body("index", contains(0, 1))
+                .body("status", everyItem(equalTo(HttpStatus.CREATED_201.getStatusCode())))
+                .extract().path("id");
+
+        for (Integer id : ids) {
+            assertDatabaseHasEntity(new Rental(), id);
+        }
+    }
+
+    @Test
+    public void postRentalsWithOverlappingRentalTest() {
+        Rental rental = createAndPersistRental();
+        List<RentalDTO> rentalDTOs = new ArrayList<>();
+        rentalDTOs.add(createRentalDTO());
+        rentalDTOs.add(new RentalDTO.Builder()
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
+                .setPriceAnnual(rental.getPriceAnnual())
+                .setDeposit(rental.getDeposit())
+                .setContactPerson(rental.getContactPerson())
+                .setHouseId(rental.getHouse().getId())
+                .setTenantIds(rental.getTenantIds())
+                .build());
+        rentalDTOs.add(createRentalDTO());
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("Content-type", ContentType.JSON)
+                .header("x-access-token", securityToken)
+                .and()
+                .body(GSON.toJson(rentalDTOs))
+                .when()
+                .post(BASE_URL+"rentals/batch")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode())
+                .body("index", contains(1))
+                .body("status", contains(HttpStatus.CONFLICT_409.getStatusCode()));
+    }
+
+    @Test
+    public void postRentalsWithNothingTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("Content-type", ContentType.JSON)
+                .header("x-access-token", securityToken)
+                .and()
+                .body("[]")
+                .when()
+                .post(BASE_URL+"rentals/batch")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode());
+    }
+
     @Test
     public void postRentalWhenAuthenticatedTest() {
         given()
@@ -396,6 +588,37 @@ public class UserResourceTest extends ResourceTestEnvironment {
                 .statusCode(HttpStatus.NOT_FOUND_404.getStatusCode());
     }
 
+    @Test
+    public void postRentalWithNonExistingTenantIdsTest() {
+        RentalDTO rentalDTO = createRentalDTO();
+        List<Integer> tenantIds = new ArrayList<>(rentalDTO.getTenantIds());
+        tenantIds.add(nonExistingId);
+        tenantIds.add(nonExistingId - 1);
+        rentalDTO = new RentalDTO.Builder()
+                .setStartDate(rentalDTO.getStartDate())
+                .setEndDate(rentalDTO.getEndDate())
+                .setPriceAnnual(rentalDTO.getPriceAnnual())
+                .setDeposit(rentalDTO.getDeposit())
+                .setContactPerson(rentalDTO.getContactPerson())
+                .setHouseId(rentalDTO.getHouseId())
+                .setTenantIds(tenantIds)
+                .build();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("Content-type", ContentType.JSON)
+                .header("x-access-token", securityToken)
+                .and()
+                .body(GSON.toJson(rentalDTO))
+                .when()
+                .post(BASE_URL+"rentals")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_FOUND_404.getStatusCode())
+                .body("message", containsString("[" + nonExistingId + ", " + (nonExistingId - 1) + "]"));
+    }
+
     @Test
     public void postRentalWithInvalidStartAndEndDateTest() {
         RentalDTO rentalDTO = createRentalDTO();
@@ -690,8 +913,8 @@ public class UserResourceTest extends ResourceTestEnvironment {
         HouseDTO houseDTO = createHouseDTOFromHouse(house);
         RentalDTO rentalDTO = new RentalDTO.Builder()
                 .setId(rental.getId())
-                .setStartDate(rental.getStartDate())
-                .setEndDate(rental.getEndDate())
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
                 .setPriceAnnual(rental.getPriceAnnual())
                 .setDeposit(rental.getDeposit())
                 .setContactPerson(rental.getContactPerson())
@@ -722,8 +945,8 @@ public class UserResourceTest extends ResourceTestEnvironment {
         HouseDTO houseDTO = createHouseDTOFromHouse(house);
         RentalDTO rentalDTO = new RentalDTO.Builder()
                 .setId(rental.getId())
-                .setStartDate(rental.getStartDate())
-                .setEndDate(rental.getEndDate())
+                .setStartDate(ApiDateFormat.format(rental.getStartDate()))
+                .setEndDate(ApiDateFormat.format(rental.getEndDate()))
                 .setPriceAnnual(rental.getPriceAnnual())
                 .setDeposit(rental.getDeposit())
                 .setContactPerson(rental.getContactPerson())
@@ -795,6 +1018,75 @@ public class UserResourceTest extends ResourceTestEnvironment {
                 .delete(BASE_URL+"rentals/"+nonExistingId)
                 .then()
                 .assertThat()
+                .statusCode(HttpStatus.NOT_FOUND_404.getStatusCode());
+    }
+
+    @Test
+    public void deleteRentalsTest() {
+        Rental first = createAndPersistRental();
+        Rental second = createAndPersistRental();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("ids", first.getId() + "," + nonExistingId + "," + second.getId())
+                .when()
+                .delete(BASE_URL+"rentals")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK_200.getStatusCode())
+                .body("status", contains(HttpStatus.NO_CONTENT_204.getStatusCode(),
+                        HttpStatus.NOT_FOUND_404.getStatusCode(), HttpStatus.NO_CONTENT_204.getStatusCode()))
+                .body("id", contains(first.getId(), nonExistingId, second.getId()));
+
+        assertDatabaseDoesNotHaveEntity(first, first.getId());
+        assertDatabaseDoesNotHaveEntity(second, second.getId());
+    }
+
+    @Test
+    public void deleteRentalsWithInvalidIdsTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .queryParam("ids", "1,two")
+                .when()
+                .delete(BASE_URL+"rentals")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.BAD_REQUEST_400.getStatusCode());
+    }
+
+    @Test
+    public void deleteUserTest() {
+        User user = createAndPersistUser();
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .delete(BASE_URL+user.getId())
+                .then()
+                .assertThat()
                 .statusCode(HttpStatus.NO_CONTENT_204.getStatusCode());
+
+        assertDatabaseDoesNotHaveEntity(user, user.getId());
+    }
+
+    @Test
+    public void deleteUserWithNonExistingIdTest() {
+        User admin = createAndPersistAdmin();
+        login(admin);
+
+        given()
+                .header("x-access-token", securityToken)
+                .when()
+                .delete(BASE_URL+nonExistingId)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_FOUND_404.getStatusCode());
     }
 }